@@ -0,0 +1,358 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.intellij.components;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.collect.Lists;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.openapi.wm.ToolWindowManager;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import com.microsoft.intellij.helpers.ReadOnlyCellTableModel;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.BandwidthManager;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.BlobCompressionPolicy;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.BlobTransferManager;
+import com.microsoft.tooling.msservices.model.storage.BlobTransferJob;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BlobTransfersToolWindowFactory implements ToolWindowFactory {
+    public static final String TOOL_WINDOW_ID = "Azure Transfers";
+
+    private static final int REFRESH_INTERVAL_MILLIS = 1000;
+
+    private final List<BlobTransferJob> jobs = new ArrayList<BlobTransferJob>();
+    private ReadOnlyCellTableModel model;
+    private JTable table;
+
+    public static void show(@NotNull final Project project) {
+        ApplicationManager.getApplication().invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                ToolWindow toolWindow = ToolWindowManager.getInstance(project).getToolWindow(TOOL_WINDOW_ID);
+
+                if (toolWindow != null) {
+                    toolWindow.show(null);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+        model = new ReadOnlyCellTableModel();
+        model.addColumn("Blob");
+        model.addColumn("Direction");
+        model.addColumn("Account");
+        model.addColumn("Priority");
+        model.addColumn("Status");
+        model.addColumn("Progress");
+        model.addColumn("Throughput");
+        model.addColumn("ETA");
+
+        table = new JBTable(model);
+        table.getSelectionModel().setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(createToolbar(), BorderLayout.NORTH);
+        panel.add(new JBScrollPane(table), BorderLayout.CENTER);
+
+        toolWindow.getComponent().add(panel);
+
+        final Timer refreshTimer = new Timer(REFRESH_INTERVAL_MILLIS, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                refresh();
+            }
+        });
+
+        final CallableSingleArg<Void, BlobTransferJob> jobChanged = new CallableSingleArg<Void, BlobTransferJob>() {
+            @Override
+            public Void call(BlobTransferJob job) throws Exception {
+                ApplicationManager.getApplication().invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        refresh();
+                    }
+                });
+
+                return null;
+            }
+        };
+
+        BlobTransferManager.getManager().addListener(jobChanged);
+        refreshTimer.start();
+
+        Disposer.register(project, new Disposable() {
+            @Override
+            public void dispose() {
+                refreshTimer.stop();
+                BlobTransferManager.getManager().removeListener(jobChanged);
+            }
+        });
+
+        refresh();
+    }
+
+    @NotNull
+    private JComponent createToolbar() {
+        JPanel toolbar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+
+        toolbar.add(createButton("Cancel", new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                BlobTransferJob job = getSelectedJob();
+
+                if (job != null) {
+                    BlobTransferManager.getManager().cancel(job);
+                }
+            }
+        }));
+
+        toolbar.add(createButton("Retry", new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                BlobTransferJob job = getSelectedJob();
+
+                if (job != null) {
+                    BlobTransferManager.getManager().retry(job);
+                }
+            }
+        }));
+
+        toolbar.add(createButton("Raise Priority", new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                changePriority(-1);
+            }
+        }));
+
+        toolbar.add(createButton("Lower Priority", new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                changePriority(1);
+            }
+        }));
+
+        toolbar.add(createButton("Global Bandwidth...", new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                Long limit = promptForLimit("Maximum bandwidth for all transfers, in KB/s (0 for unlimited):",
+                        BandwidthManager.getManager().getGlobalLimit());
+
+                if (limit != null) {
+                    BandwidthManager.getManager().setGlobalLimit(limit);
+                }
+            }
+        }));
+
+        toolbar.add(createButton("Account Bandwidth...", new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                BlobTransferJob job = getSelectedJob();
+
+                if (job != null) {
+                    String accountName = job.getStorageAccount().getName();
+                    Long limit = promptForLimit(String.format("Maximum bandwidth for transfers of the storage account " +
+                                    "\"%s\", in KB/s (0 for unlimited):", accountName),
+                            BandwidthManager.getManager().getAccountLimit(accountName));
+
+                    if (limit != null) {
+                        BandwidthManager.getManager().setAccountLimit(accountName, limit);
+                    }
+                }
+            }
+        }));
+
+        toolbar.add(createButton("Compression...", new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                editCompressionPolicy();
+            }
+        }));
+
+        toolbar.add(createButton("Clear Finished", new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                BlobTransferManager.getManager().removeFinished();
+                refresh();
+            }
+        }));
+
+        return toolbar;
+    }
+
+    @NotNull
+    private static JButton createButton(@NotNull String text, @NotNull ActionListener actionListener) {
+        JButton button = new JButton(text);
+        button.addActionListener(actionListener);
+
+        return button;
+    }
+
+    @Nullable
+    private Long promptForLimit(@NotNull String message, long currentLimit) {
+        String value = Messages.showInputDialog(table, message, "Bandwidth Limit", null,
+                String.valueOf(currentLimit / 1024), null);
+
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            return Math.max(0, Long.parseLong(value.trim())) * 1024;
+        } catch (NumberFormatException e) {
+            Messages.showErrorDialog(table, "The bandwidth limit must be a whole number of KB/s.", "Bandwidth Limit");
+            return null;
+        }
+    }
+
+    private void editCompressionPolicy() {
+        BlobCompressionPolicy compressionPolicy = BlobTransferManager.getManager().getCompressionPolicy();
+        String contentTypes = Messages.showInputDialog(table,
+                "Content types to gzip on upload, comma separated (empty to disable compression):",
+                "Upload Compression", null,
+                compressionPolicy.isCompressUploads() ? Joiner.on(", ").join(compressionPolicy.getContentTypes()) : "",
+                null);
+
+        if (contentTypes == null) {
+            return;
+        }
+
+        List<String> types = Lists.newArrayList(Splitter.on(',').trimResults().omitEmptyStrings().split(contentTypes));
+
+        if (!types.isEmpty()) {
+            String value = Messages.showInputDialog(table, "Minimum file size to compress, in KB:",
+                    "Upload Compression", null, String.valueOf(compressionPolicy.getMinimumSize() / 1024), null);
+
+            if (value == null) {
+                return;
+            }
+
+            try {
+                compressionPolicy.setMinimumSize(Math.max(0, Long.parseLong(value.trim())) * 1024);
+            } catch (NumberFormatException e) {
+                Messages.showErrorDialog(table, "The minimum size must be a whole number of KB.", "Upload Compression");
+                return;
+            }
+
+            compressionPolicy.setContentTypes(types);
+        }
+
+        compressionPolicy.setCompressUploads(!types.isEmpty());
+        BlobTransferManager.getManager().setCompressionPolicy(compressionPolicy);
+    }
+
+    private void changePriority(int offset) {
+        BlobTransferJob job = getSelectedJob();
+
+        if (job != null) {
+            BlobTransferJob.Priority[] priorities = BlobTransferJob.Priority.values();
+            int index = Math.max(0, Math.min(priorities.length - 1, job.getPriority().ordinal() + offset));
+
+            BlobTransferManager.getManager().setPriority(job, priorities[index]);
+        }
+    }
+
+    private BlobTransferJob getSelectedJob() {
+        int row = table.getSelectedRow();
+
+        return row >= 0 && row < jobs.size() ? jobs.get(row) : null;
+    }
+
+    private void refresh() {
+        BlobTransferJob selectedJob = getSelectedJob();
+
+        jobs.clear();
+        jobs.addAll(BlobTransferManager.getManager().getJobs());
+
+        model.setRowCount(0);
+
+        for (BlobTransferJob job : jobs) {
+            model.addRow(new Object[]{
+                    job.getBlobPath(),
+                    job.getDirection() == BlobTransferJob.Direction.DOWNLOAD ? "Download" :
+                            job.getDirection() == BlobTransferJob.Direction.SYNC ? "Sync folder" :
+                                    job.isDirectory() ? "Upload folder" : "Upload",
+                    job.getStorageAccount().getName(),
+                    StringUtil.capitalize(job.getPriority().toString().toLowerCase()),
+                    getStatus(job),
+                    getProgress(job),
+                    job.getThroughput() > 0 ? StringUtil.formatFileSize((long) job.getThroughput()) + "/s" : "",
+                    job.getRemainingSeconds() >= 0 ? StringUtil.formatDuration(job.getRemainingSeconds() * 1000) : ""
+            });
+        }
+
+        int selectedRow = jobs.indexOf(selectedJob);
+
+        if (selectedRow >= 0) {
+            table.getSelectionModel().setSelectionInterval(selectedRow, selectedRow);
+        }
+    }
+
+    @NotNull
+    private static String getStatus(@NotNull BlobTransferJob job) {
+        switch (job.getState()) {
+            case QUEUED:
+                return "Queued";
+            case RUNNING:
+                return job.getBlockSize() > 0 ? String.format("Running (%s KB blocks)", job.getBlockSize() / 1024) : "Running";
+            case COMPLETED:
+                return job.isUnchanged() ? "Completed (unchanged, skipped)" : "Completed";
+            case FAILED:
+                return "Failed: " + job.getErrorMessage();
+            default:
+                return "Cancelled";
+        }
+    }
+
+    @NotNull
+    private static String getProgress(@NotNull BlobTransferJob job) {
+        long percent = job.getTotalBytes() > 0 ? job.getTransferredBytes() * 100 / job.getTotalBytes() : 100;
+
+        String progress = String.format("%s%% of %s", percent, StringUtil.formatFileSize(job.getTotalBytes()));
+
+        if (!job.isDirectory() && job.getDirection() != BlobTransferJob.Direction.SYNC) {
+            return progress;
+        }
+
+        progress = String.format("%s, %d/%d files", progress, job.getCompletedFiles(), job.getTotalFiles());
+
+        return job.getFailedFiles() > 0 ? String.format("%s, %d failed", progress, job.getFailedFiles()) : progress;
+    }
+}
@@ -32,6 +32,8 @@ import com.microsoft.tooling.msservices.components.PluginComponent;
 import com.microsoft.tooling.msservices.components.PluginSettings;
 import com.microsoft.tooling.msservices.helpers.IDEHelper;
 import com.microsoft.tooling.msservices.helpers.StringHelper;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.BandwidthManager;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.BlobTransferManager;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.BufferedReader;
@@ -81,6 +83,9 @@ public class MSToolsApplication extends ApplicationComponent.Adapter implements
 
         cleanTempData(DefaultLoader.getIdeHelper());
 
+        BandwidthManager.getManager().restore();
+        BlobTransferManager.getManager().restore();
+
     }
 
     @Override
@@ -0,0 +1,334 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.intellij.forms;
+
+import com.google.common.base.Charsets;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.microsoft.tooling.msservices.components.DefaultLoader;
+import com.microsoft.tooling.msservices.helpers.azure.AzureCmdException;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.BlobRangeReader;
+import com.microsoft.tooling.msservices.model.storage.BlobFile;
+import com.microsoft.tooling.msservices.model.storage.ClientStorageAccount;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+
+public class BlobPreviewForm extends DialogWrapper {
+    private static final String[] MODE_NAMES = {"Text", "Hex"};
+    private static final int BYTES_PER_ROW = 16;
+    private static final int MAX_LINE_BYTES = 512;
+    private static final int WHEEL_LINES = 3;
+    private static final int SCROLL_RANGE = 1000000;
+    private static final int SCROLL_EXTENT = SCROLL_RANGE / 100;
+
+    private JPanel contentPane;
+    private JComboBox modeComboBox;
+    private JTextField offsetTextField;
+    private JButton goButton;
+    private JButton headButton;
+    private JButton tailButton;
+    private JLabel positionLabel;
+    private JTextArea previewTextArea;
+    private JScrollBar positionScrollBar;
+
+    private final BlobRangeReader reader;
+    private long offset;
+    private volatile int requestSequence;
+    private boolean updatingScrollBar;
+
+    public BlobPreviewForm(Project project, @NotNull ClientStorageAccount storageAccount, @NotNull BlobFile blobFile) {
+        super(project, true);
+
+        reader = new BlobRangeReader(storageAccount, blobFile);
+
+        setModal(false);
+        setTitle("Preview - " + blobFile.getName());
+
+        previewTextArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, previewTextArea.getFont().getSize()));
+        modeComboBox.setModel(new DefaultComboBoxModel(MODE_NAMES));
+        positionScrollBar.setValues(0, SCROLL_EXTENT, 0, SCROLL_RANGE + SCROLL_EXTENT);
+
+        modeComboBox.addItemListener(new ItemListener() {
+            @Override
+            public void itemStateChanged(ItemEvent itemEvent) {
+                if (itemEvent.getStateChange() == ItemEvent.SELECTED) {
+                    render(offset, 0);
+                }
+            }
+        });
+
+        ActionListener goAction = new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                goToOffset();
+            }
+        };
+
+        goButton.addActionListener(goAction);
+        offsetTextField.addActionListener(goAction);
+
+        headButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                render(0, 0);
+            }
+        });
+
+        tailButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                render(reader.getLength(), -getVisibleRows());
+            }
+        });
+
+        positionScrollBar.addAdjustmentListener(new AdjustmentListener() {
+            @Override
+            public void adjustmentValueChanged(AdjustmentEvent adjustmentEvent) {
+                if (updatingScrollBar) {
+                    return;
+                }
+
+                long target = (long) ((double) adjustmentEvent.getValue() / SCROLL_RANGE * reader.getLength());
+
+                // only fetch once the thumb is released; dragging just tracks the offset
+                if (adjustmentEvent.getValueIsAdjusting()) {
+                    updatePositionLabel(target);
+                } else {
+                    render(target, 0);
+                }
+            }
+        });
+
+        previewTextArea.addMouseWheelListener(new MouseWheelListener() {
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent mouseWheelEvent) {
+                render(offset, mouseWheelEvent.getWheelRotation() * WHEEL_LINES);
+            }
+        });
+
+        previewTextArea.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent componentEvent) {
+                render(offset, 0);
+            }
+        });
+
+        init();
+    }
+
+    private boolean isHexMode() {
+        return modeComboBox.getSelectedIndex() == 1;
+    }
+
+    private int getVisibleRows() {
+        FontMetrics fontMetrics = previewTextArea.getFontMetrics(previewTextArea.getFont());
+        Insets insets = previewTextArea.getInsets();
+
+        return Math.max(1, (previewTextArea.getHeight() - insets.top - insets.bottom) / fontMetrics.getHeight());
+    }
+
+    private void goToOffset() {
+        String text = offsetTextField.getText().trim().toLowerCase();
+
+        try {
+            render(text.startsWith("0x") ? Long.parseLong(text.substring(2), 16) : Long.parseLong(text), 0);
+        } catch (NumberFormatException e) {
+            DefaultLoader.getUIHelper().showError("The offset must be a decimal or 0x-prefixed hexadecimal number.",
+                    "Azure Services Explorer - Preview Blob");
+        }
+    }
+
+    private void render(final long baseOffset, final int lineDelta) {
+        final int sequence = ++requestSequence;
+        final int rows = getVisibleRows();
+        final boolean hexMode = isHexMode();
+
+        ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+            @Override
+            public void run() {
+                // a newer scroll or jump has already superseded this one; don't queue its fetches
+                if (sequence != requestSequence) {
+                    return;
+                }
+
+                try {
+                    final long start;
+                    final String text;
+
+                    if (hexMode) {
+                        long lastRow = Math.max(0, (reader.getLength() - 1) / BYTES_PER_ROW * BYTES_PER_ROW);
+                        start = Math.max(0, Math.min(lastRow, baseOffset / BYTES_PER_ROW * BYTES_PER_ROW +
+                                (long) lineDelta * BYTES_PER_ROW));
+                        text = formatHex(start, reader.read(start, rows * BYTES_PER_ROW));
+                    } else {
+                        start = moveLines(findLineStart(baseOffset), lineDelta);
+                        text = formatText(start, rows);
+                    }
+
+                    ApplicationManager.getApplication().invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (sequence != requestSequence) {
+                                return;
+                            }
+
+                            offset = start;
+                            previewTextArea.setText(text);
+                            previewTextArea.setCaretPosition(0);
+
+                            updatePositionLabel(start);
+
+                            updatingScrollBar = true;
+                            positionScrollBar.setValue(reader.getLength() > 0 ?
+                                    (int) ((double) start / reader.getLength() * SCROLL_RANGE) : 0);
+                            updatingScrollBar = false;
+                        }
+                    });
+                } catch (AzureCmdException ex) {
+                    if (sequence != requestSequence) {
+                        return;
+                    }
+
+                    DefaultLoader.getUIHelper().showException("An error occurred while attempting to read the blob.", ex,
+                            "Azure Services Explorer - Error Previewing Blob", false, true);
+                }
+            }
+        });
+    }
+
+    private void updatePositionLabel(long position) {
+        long length = reader.getLength();
+
+        positionLabel.setText(String.format("%,d / %,d bytes (%d%%)", position, length,
+                length > 0 ? position * 100 / length : 0));
+    }
+
+    private long findLineStart(long position) throws AzureCmdException {
+        position = Math.max(0, Math.min(position, reader.getLength()));
+
+        if (position == 0) {
+            return 0;
+        }
+
+        long from = Math.max(0, position - MAX_LINE_BYTES);
+        byte[] data = reader.read(from, (int) (position - from));
+
+        for (int i = data.length - 1; i >= 0; i--) {
+            if (data[i] == '\n') {
+                return from + i + 1;
+            }
+        }
+
+        // no line break within reach: treat the text as wrapped every MAX_LINE_BYTES
+        return from;
+    }
+
+    private long moveLines(long lineStart, int lineDelta) throws AzureCmdException {
+        for (int i = 0; i < lineDelta && lineStart < reader.getLength(); i++) {
+            lineStart = getNextLineStart(lineStart, reader.read(lineStart, MAX_LINE_BYTES));
+        }
+
+        for (int i = 0; i > lineDelta && lineStart > 0; i--) {
+            lineStart = findLineStart(lineStart - 1);
+        }
+
+        return lineStart;
+    }
+
+    private static long getNextLineStart(long lineStart, @NotNull byte[] data) {
+        for (int i = 0; i < data.length; i++) {
+            if (data[i] == '\n') {
+                return lineStart + i + 1;
+            }
+        }
+
+        return lineStart + data.length;
+    }
+
+    @NotNull
+    private String formatText(long start, int rows) throws AzureCmdException {
+        StringBuilder text = new StringBuilder();
+        long lineStart = start;
+
+        for (int row = 0; row < rows && lineStart < reader.getLength(); row++) {
+            byte[] data = reader.read(lineStart, MAX_LINE_BYTES);
+            long nextLineStart = getNextLineStart(lineStart, data);
+            int lineLength = (int) (nextLineStart - lineStart);
+
+            while (lineLength > 0 && (data[lineLength - 1] == '\n' || data[lineLength - 1] == '\r')) {
+                lineLength--;
+            }
+
+            text.append(new String(data, 0, lineLength, Charsets.UTF_8)).append('\n');
+            lineStart = nextLineStart;
+        }
+
+        return text.toString();
+    }
+
+    @NotNull
+    private static String formatHex(long start, @NotNull byte[] data) {
+        StringBuilder text = new StringBuilder();
+
+        for (int row = 0; row < data.length; row += BYTES_PER_ROW) {
+            StringBuilder ascii = new StringBuilder();
+
+            text.append(String.format("%012X  ", start + row));
+
+            for (int i = 0; i < BYTES_PER_ROW; i++) {
+                if (row + i < data.length) {
+                    int value = data[row + i] & 0xFF;
+
+                    text.append(String.format("%02X ", value));
+                    ascii.append(value >= 0x20 && value < 0x7F ? (char) value : '.');
+                } else {
+                    text.append("   ");
+                }
+
+                if (i == BYTES_PER_ROW / 2 - 1) {
+                    text.append(' ');
+                }
+            }
+
+            text.append(" |").append(ascii).append("|\n");
+        }
+
+        return text.toString();
+    }
+
+    @NotNull
+    @Override
+    protected Action[] createActions() {
+        return new Action[]{getOKAction()};
+    }
+
+    @Nullable
+    @Override
+    protected JComponent createCenterPanel() {
+        return contentPane;
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.intellij.forms;
+
+import com.google.common.base.Charsets;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.text.StringUtil;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.BlobTailer;
+import com.microsoft.tooling.msservices.model.storage.BlobFile;
+import com.microsoft.tooling.msservices.model.storage.BlobTailUpdate;
+import com.microsoft.tooling.msservices.model.storage.ClientStorageAccount;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+public class BlobTailForm extends DialogWrapper {
+    private static final long MAX_TAIL_BYTES = 256 * 1024;
+    private static final int MAX_VIEW_CHARS = 1024 * 1024;
+
+    private JPanel contentPane;
+    private JLabel statusLabel;
+    private JButton pauseButton;
+    private JButton clearButton;
+    private JTextArea tailTextArea;
+
+    private final BlobTailer tailer;
+    private final CharsetDecoder decoder = Charsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private ByteBuffer pendingBytes = ByteBuffer.allocate(0);
+
+    public BlobTailForm(Project project, @NotNull ClientStorageAccount storageAccount, @NotNull BlobFile blobFile) {
+        super(project, true);
+
+        setModal(false);
+        setTitle("Tail - " + blobFile.getName());
+
+        tailTextArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, tailTextArea.getFont().getSize()));
+
+        tailer = new BlobTailer(storageAccount, blobFile, MAX_TAIL_BYTES, new CallableSingleArg<Void, BlobTailUpdate>() {
+            @Override
+            public Void call(final BlobTailUpdate update) throws Exception {
+                ApplicationManager.getApplication().invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        processUpdate(update);
+                    }
+                });
+
+                return null;
+            }
+        });
+
+        pauseButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                if (tailer.isRunning()) {
+                    tailer.stop();
+                    pauseButton.setText("Resume");
+                    statusLabel.setText(String.format("Paused at %s", StringUtil.formatFileSize(tailer.getPosition())));
+                } else {
+                    tailer.start();
+                    pauseButton.setText("Pause");
+                }
+            }
+        });
+
+        clearButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                tailTextArea.setText("");
+            }
+        });
+
+        Disposer.register(getDisposable(), new Disposable() {
+            @Override
+            public void dispose() {
+                tailer.stop();
+            }
+        });
+
+        init();
+
+        tailer.start();
+    }
+
+    private void processUpdate(@NotNull BlobTailUpdate update) {
+        if (update.isReset()) {
+            tailTextArea.setText("");
+            pendingBytes = ByteBuffer.allocate(0);
+            decoder.reset();
+        }
+
+        if (update.getData().length > 0) {
+            append(decode(update.getData()));
+        }
+
+        long position = update.getOffset() + update.getData().length;
+
+        if (update.isStopped()) {
+            pauseButton.setText("Resume");
+            statusLabel.setText(String.format("Stopped at %s: %s", StringUtil.formatFileSize(position),
+                    update.getErrorMessage()));
+            return;
+        }
+
+        statusLabel.setText(update.getErrorMessage() != null ?
+                String.format("Read error at %s: %s", StringUtil.formatFileSize(position), update.getErrorMessage()) :
+                String.format("%s of %s, polling every %s s", StringUtil.formatFileSize(position),
+                        StringUtil.formatFileSize(update.getLength()), update.getPollInterval() / 1000));
+    }
+
+    @NotNull
+    private String decode(@NotNull byte[] data) {
+        // a multi-byte character can be split across two appended ranges; keep its head for the next one
+        ByteBuffer input = ByteBuffer.allocate(pendingBytes.remaining() + data.length);
+        input.put(pendingBytes).put(data).flip();
+
+        CharBuffer output = CharBuffer.allocate(input.remaining());
+        decoder.decode(input, output, false);
+        output.flip();
+
+        pendingBytes = input.slice();
+
+        return output.toString();
+    }
+
+    private void append(@NotNull String text) {
+        JScrollBar scrollBar = ((JScrollPane) SwingUtilities.getAncestorOfClass(JScrollPane.class, tailTextArea))
+                .getVerticalScrollBar();
+        boolean following = scrollBar.getValue() + scrollBar.getVisibleAmount() >= scrollBar.getMaximum();
+
+        tailTextArea.append(text);
+
+        Document document = tailTextArea.getDocument();
+        int excess = document.getLength() - MAX_VIEW_CHARS;
+
+        if (excess > 0) {
+            // the view is a ring buffer: drop whole lines from the head once it is full
+            try {
+                String head = document.getText(excess, Math.min(document.getLength() - excess, 4096));
+                int lineEnd = head.indexOf('\n');
+
+                document.remove(0, lineEnd >= 0 ? excess + lineEnd + 1 : excess);
+            } catch (BadLocationException ignored) {
+            }
+        }
+
+        if (following) {
+            tailTextArea.setCaretPosition(document.getLength());
+        }
+    }
+
+    @NotNull
+    @Override
+    protected Action[] createActions() {
+        return new Action[]{getOKAction()};
+    }
+
+    @Nullable
+    @Override
+    protected JComponent createCenterPanel() {
+        return contentPane;
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.intellij.forms;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.ui.table.JBTable;
+import com.microsoft.intellij.helpers.ReadOnlyCellTableModel;
+import com.microsoft.tooling.msservices.components.DefaultLoader;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.tooling.msservices.helpers.azure.AzureCmdException;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManagerImpl;
+import com.microsoft.tooling.msservices.model.storage.BlobContainer;
+import com.microsoft.tooling.msservices.model.storage.BlobContainerStatistics;
+import com.microsoft.tooling.msservices.model.storage.ClientStorageAccount;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+public class ContainerStatisticsForm extends DialogWrapper {
+    private JPanel mainPanel;
+    private JTable statisticsTable;
+    private JLabel statusLabel;
+
+    private Future<?> scanFuture;
+
+    public ContainerStatisticsForm(Project project, BlobContainer blobContainer) {
+        super(project, true);
+
+        setModal(false);
+        setTitle("Statistics for " + blobContainer.getName());
+
+        ReadOnlyCellTableModel model = new ReadOnlyCellTableModel();
+        model.addColumn("Statistic");
+        model.addColumn("Value");
+
+        statisticsTable.setModel(model);
+        statisticsTable.getSelectionModel().setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+        statusLabel.setText("Listing virtual directories...");
+
+        init();
+    }
+
+    public void scan(@NotNull final ClientStorageAccount storageAccount, @NotNull final BlobContainer blobContainer) {
+        scanFuture = ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    StorageClientSDKManagerImpl.getManager().getBlobContainerStatistics(storageAccount, blobContainer,
+                            new CallableSingleArg<Void, BlobContainerStatistics>() {
+                                @Override
+                                public Void call(final BlobContainerStatistics statistics) throws Exception {
+                                    ApplicationManager.getApplication().invokeLater(new Runnable() {
+                                        @Override
+                                        public void run() {
+                                            showStatistics(statistics);
+                                        }
+                                    });
+
+                                    return null;
+                                }
+                            });
+                } catch (final AzureCmdException e) {
+                    if (scanFuture != null && scanFuture.isCancelled()) {
+                        return;
+                    }
+
+                    ApplicationManager.getApplication().invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            statusLabel.setText("Error scanning blob container");
+                            DefaultLoader.getUIHelper().showException("An error occurred while attempting to scan the blob container.", e,
+                                    "Azure Services Explorer - Error Scanning Blob Container", false, true);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    private void showStatistics(@NotNull BlobContainerStatistics statistics) {
+        ReadOnlyCellTableModel model = (ReadOnlyCellTableModel) statisticsTable.getModel();
+
+        while (model.getRowCount() > 0) {
+            model.removeRow(0);
+        }
+
+        model.addRow(new Object[]{"Blobs", statistics.getBlobCount()});
+        model.addRow(new Object[]{"Total size", StringUtil.formatFileSize(statistics.getTotalBytes())});
+
+        Map<String, Long> bytesByType = statistics.getBytesByType();
+
+        for (Map.Entry<String, Long> entry : statistics.getBlobCountByType().entrySet()) {
+            model.addRow(new Object[]{entry.getKey(), String.format("%s blobs, %s", entry.getValue(),
+                    StringUtil.formatFileSize(bytesByType.get(entry.getKey())))});
+        }
+
+        for (Map.Entry<String, Long> entry : statistics.getBlobCountBySize().entrySet()) {
+            model.addRow(new Object[]{entry.getKey(), entry.getValue() + " blobs"});
+        }
+
+        if (statistics.isComplete()) {
+            statusLabel.setText(String.format("Scanned %s virtual directories", statistics.getTotalShards()));
+        } else {
+            statusLabel.setText(String.format("Scanned %s of %s virtual directories...",
+                    statistics.getCompletedShards(), statistics.getTotalShards()));
+        }
+    }
+
+    private void createUIComponents() {
+        statisticsTable = new JBTable();
+    }
+
+    @Override
+    protected void dispose() {
+        if (scanFuture != null) {
+            scanFuture.cancel(true);
+        }
+
+        super.dispose();
+    }
+
+    @NotNull
+    @Override
+    protected Action[] createActions() {
+        return new Action[]{getOKAction()};
+    }
+
+    @Nullable
+    @Override
+    protected JComponent createCenterPanel() {
+        return mainPanel;
+    }
+}
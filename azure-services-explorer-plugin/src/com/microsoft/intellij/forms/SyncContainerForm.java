@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.intellij.forms;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.microsoft.tooling.msservices.model.storage.BlobSyncSummary;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+
+public class SyncContainerForm extends DialogWrapper {
+    private static final String[] MODE_NAMES = {
+            "Upload local changes, deleting blobs that are missing locally",
+            "Download remote changes, deleting local files that are missing remotely",
+            "Both directions, newer copy wins, nothing is deleted"
+    };
+
+    private JPanel contentPane;
+    private JTextField localFolderTextField;
+    private JButton browseButton;
+    private JTextField prefixTextField;
+    private JComboBox modeComboBox;
+
+    private File localFolder;
+    private Runnable syncSelected;
+
+    public SyncContainerForm(Project project, String containerName) {
+        super(project, true);
+
+        setModal(true);
+        setTitle("Sync " + containerName);
+
+        localFolderTextField.setEditable(false);
+        modeComboBox.setModel(new DefaultComboBoxModel(MODE_NAMES));
+
+        browseButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                JFileChooser jFileChooser = new JFileChooser();
+                jFileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+                jFileChooser.setDialogTitle("Local folder to sync");
+
+                if (jFileChooser.showOpenDialog(contentPane) == JFileChooser.APPROVE_OPTION) {
+                    localFolder = jFileChooser.getSelectedFile();
+                    localFolderTextField.setText(localFolder.getAbsolutePath());
+
+                    validateForm();
+                }
+            }
+        });
+
+        prefixTextField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent documentEvent) {
+                validateForm();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent documentEvent) {
+                validateForm();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent documentEvent) {
+                validateForm();
+            }
+        });
+
+        validateForm();
+        init();
+    }
+
+    @Nullable
+    @Override
+    protected JComponent createCenterPanel() {
+        return contentPane;
+    }
+
+    private void validateForm() {
+        setOKActionEnabled(localFolder != null);
+    }
+
+    @Override
+    protected void doOKAction() {
+        syncSelected.run();
+
+        close(DialogWrapper.OK_EXIT_CODE, true);
+    }
+
+    public File getLocalFolder() {
+        return localFolder;
+    }
+
+    public String getPrefix() {
+        String prefix = prefixTextField.getText().trim();
+
+        return prefix.startsWith("/") ? prefix.substring(1) : prefix;
+    }
+
+    public BlobSyncSummary.Mode getMode() {
+        return BlobSyncSummary.Mode.values()[modeComboBox.getSelectedIndex()];
+    }
+
+    public void setSyncSelected(Runnable syncSelected) {
+        this.syncSelected = syncSelected;
+    }
+}
@@ -31,6 +31,8 @@ import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.ItemEvent;
+import java.awt.event.ItemListener;
 import java.io.File;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -41,6 +43,8 @@ public class UploadBlobFileForm extends DialogWrapper {
     private JTextField nameTextField;
     private JButton browseButton;
     private JTextField folderTextField;
+    private JCheckBox pageBlobCheckBox;
+    private JCheckBox deltaUploadCheckBox;
 
     private String folder;
     private File selectedFile;
@@ -61,18 +65,28 @@ public class UploadBlobFileForm extends DialogWrapper {
             @Override
             public void actionPerformed(ActionEvent actionEvent) {
                 JFileChooser jFileChooser = new JFileChooser();
-                jFileChooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+                jFileChooser.setFileSelectionMode(JFileChooser.FILES_AND_DIRECTORIES);
                 jFileChooser.setDialogTitle("Upload blob");
                 if (jFileChooser.showOpenDialog(contentPane) == JFileChooser.APPROVE_OPTION) {
 
                     selectedFile = jFileChooser.getSelectedFile();
                     nameTextField.setText(selectedFile.getAbsolutePath());
+                    pageBlobCheckBox.setSelected(selectedFile.isFile() &&
+                            selectedFile.getName().toLowerCase().endsWith(".vhd"));
+                    updateOptions();
 
                     validateForm();
                 }
             }
         });
 
+        pageBlobCheckBox.addItemListener(new ItemListener() {
+            @Override
+            public void itemStateChanged(ItemEvent itemEvent) {
+                updateOptions();
+            }
+        });
+
         folderTextField.getDocument().addDocumentListener(new DocumentListener() {
             @Override
             public void insertUpdate(DocumentEvent documentEvent) {
@@ -102,6 +116,14 @@ public class UploadBlobFileForm extends DialogWrapper {
         return contentPane;
     }
 
+    private void updateOptions() {
+        // directories are uploaded as plain block blobs
+        boolean directory = selectedFile != null && selectedFile.isDirectory();
+
+        pageBlobCheckBox.setEnabled(!directory);
+        deltaUploadCheckBox.setEnabled(!directory && !pageBlobCheckBox.isSelected());
+    }
+
     private void validateForm() {
         setOKActionEnabled(selectedFile != null);
     }
@@ -128,6 +150,14 @@ public class UploadBlobFileForm extends DialogWrapper {
         return selectedFile;
     }
 
+    public boolean isPageBlob() {
+        return pageBlobCheckBox.isEnabled() && pageBlobCheckBox.isSelected();
+    }
+
+    public boolean isDeltaUpload() {
+        return deltaUploadCheckBox.isEnabled() && deltaUploadCheckBox.isSelected();
+    }
+
     public void setUploadSelected(Runnable uploadSelected) {
         this.uploadSelected = uploadSelected;
     }
@@ -315,7 +315,7 @@ public class IDEHelperImpl implements IDEHelper {
                     ApplicationManager.getApplication().invokeLater(new Runnable() {
                         @Override
                         public void run() {
-                            containerFileEditor.fillGrid();
+                            containerFileEditor.reloadGrid();
                         }
                     });
                 }
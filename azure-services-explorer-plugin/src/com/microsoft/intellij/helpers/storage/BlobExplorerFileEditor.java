@@ -33,12 +33,17 @@ import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Key;
+import com.microsoft.intellij.components.BlobTransfersToolWindowFactory;
+import com.microsoft.intellij.forms.BlobPreviewForm;
+import com.microsoft.intellij.forms.BlobTailForm;
 import com.microsoft.intellij.forms.UploadBlobFileForm;
 import com.microsoft.intellij.helpers.UIHelperImpl;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
 import com.microsoft.tooling.msservices.helpers.azure.AzureCmdException;
 import com.microsoft.tooling.msservices.helpers.azure.AzureManagerImpl;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.BlobTransferManager;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.BlobTransferOptions;
 import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManagerImpl;
 import com.microsoft.tooling.msservices.model.storage.*;
 import com.microsoft.tooling.msservices.serviceexplorer.EventHelper.EventWaitHandle;
@@ -59,20 +64,23 @@ import java.awt.datatransfer.StringSelection;
 import java.awt.event.*;
 import java.beans.PropertyChangeListener;
 import java.io.*;
-import java.net.SocketTimeoutException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.Future;
 
 public class BlobExplorerFileEditor implements FileEditor {
+    private static final int PAGE_SIZE = 500;
+    private static final int PAGE_LOAD_THRESHOLD = 200;
+
     private JPanel mainPanel;
     private JTextField queryTextField;
     private JTable blobListTable;
     private JButton queryButton;
+    private JCheckBox flatSearchCheckBox;
     private JButton refreshButton;
     private JButton uploadButton;
     private JButton deleteButton;
@@ -87,13 +95,18 @@ public class BlobExplorerFileEditor implements FileEditor {
 
     private LinkedList<BlobDirectory> directoryQueue = new LinkedList<BlobDirectory>();
     private List<BlobItem> blobItems;
+    private String continuationToken;
+    private boolean pageLoading;
+    private String queryPrefix = "";
+    private boolean flatListing;
+    private boolean cachedListing;
 
     private EventWaitHandle subscriptionsChanged;
     private boolean registeredSubscriptionsChanged;
     private final Object subscriptionsChangedSync = new Object();
 
     public BlobExplorerFileEditor() {
-        blobListTable.getSelectionModel().setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        blobListTable.getSelectionModel().setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
 
         DefaultTableModel model = new DefaultTableModel() {
             @Override
@@ -131,11 +144,11 @@ public class BlobExplorerFileEditor implements FileEditor {
         blobListTable.getSelectionModel().addListSelectionListener(new ListSelectionListener() {
             @Override
             public void valueChanged(ListSelectionEvent listSelectionEvent) {
-                boolean directorySelected = isDirectorySelected() && blobListTable.getSelectedRow() >= 0;
+                boolean singleFileSelected = blobListTable.getSelectedRowCount() == 1 && !isDirectorySelected();
 
-                deleteButton.setEnabled(!directorySelected);
-                openButton.setEnabled(!directorySelected);
-                saveAsButton.setEnabled(!directorySelected);
+                deleteButton.setEnabled(blobListTable.getSelectedRowCount() > 0);
+                openButton.setEnabled(singleFileSelected);
+                saveAsButton.setEnabled(singleFileSelected);
             }
         });
 
@@ -204,7 +217,11 @@ public class BlobExplorerFileEditor implements FileEditor {
                     int r = blobListTable.rowAtPoint(me.getPoint());
 
                     if (r >= 0 && r < blobListTable.getRowCount()) {
-                        blobListTable.setRowSelectionInterval(r, r);
+                        // keep Ctrl/Shift multi-selection, and a right-click on it, intact
+                        if (!blobListTable.isRowSelected(r) && !me.isControlDown() && !me.isShiftDown() &&
+                                !me.isMetaDown()) {
+                            blobListTable.setRowSelectionInterval(r, r);
+                        }
                     } else {
                         blobListTable.clearSelection();
                     }
@@ -220,10 +237,10 @@ public class BlobExplorerFileEditor implements FileEditor {
                     }
 
                     if (me.getButton() == 3) {
-                        BlobFile fileSelection = getFileSelection();
+                        List<BlobItem> selectedItems = getSelectedItems();
 
-                        if (fileSelection != null) {
-                            JPopupMenu popup = createTablePopUp();
+                        if (!selectedItems.isEmpty()) {
+                            JPopupMenu popup = createTablePopUp(selectedItems);
                             popup.show(me.getComponent(), me.getX(), me.getY());
                         }
                     }
@@ -231,6 +248,17 @@ public class BlobExplorerFileEditor implements FileEditor {
             }
         });
 
+        JScrollPane scrollPane = (JScrollPane) SwingUtilities.getAncestorOfClass(JScrollPane.class, blobListTable);
+
+        if (scrollPane != null) {
+            scrollPane.getVerticalScrollBar().addAdjustmentListener(new AdjustmentListener() {
+                @Override
+                public void adjustmentValueChanged(AdjustmentEvent adjustmentEvent) {
+                    loadNextPageIfNeeded();
+                }
+            });
+        }
+
         blobListTable.addKeyListener(new KeyListener() {
             @Override
             public void keyTyped(KeyEvent keyEvent) {
@@ -251,7 +279,7 @@ public class BlobExplorerFileEditor implements FileEditor {
         ActionListener queryAction = new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent actionEvent) {
-                fillGrid();
+                reloadGrid();
             }
         };
 
@@ -261,7 +289,7 @@ public class BlobExplorerFileEditor implements FileEditor {
         deleteButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent actionEvent) {
-                deleteSelectedFile();
+                deleteSelectedItems();
             }
         });
 
@@ -293,8 +321,20 @@ public class BlobExplorerFileEditor implements FileEditor {
     }
 
     public void fillGrid() {
+        fillGrid(true, false);
+    }
+
+    public void reloadGrid() {
+        // after an explicit refresh or our own changes the cached listing is not worth showing, even briefly
+        fillGrid(true, true);
+    }
+
+    private void fillGrid(final boolean revalidate, final boolean skipCache) {
         setUIState(true);
 
+        final String prefix = queryTextField.getText();
+        final boolean searchFlat = flatSearchCheckBox.isSelected() && !prefix.isEmpty();
+
         ProgressManager.getInstance().run(new Task.Backgroundable(project, "Loading blobs...", false) {
             @Override
             public void run(@NotNull ProgressIndicator progressIndicator) {
@@ -305,16 +345,24 @@ public class BlobExplorerFileEditor implements FileEditor {
                         directoryQueue.addLast(StorageClientSDKManagerImpl.getManager().getRootDirectory(storageAccount, blobContainer));
                     }
 
-                    blobItems = StorageClientSDKManagerImpl.getManager().getBlobItems(storageAccount, directoryQueue.peekLast());
+                    final BlobDirectory blobDirectory = searchFlat ?
+                            directoryQueue.peekFirst() : directoryQueue.peekLast();
 
-                    if (!queryTextField.getText().isEmpty()) {
-                        for (int i = blobItems.size() - 1; i >= 0; i--) {
-                            BlobItem blobItem = blobItems.get(i);
+                    BlobItemPage cachedPage = null;
 
-                            if (blobItem instanceof BlobFile && !blobItem.getName().startsWith(queryTextField.getText())) {
-                                blobItems.remove(i);
-                            }
-                        }
+                    if (prefix.isEmpty() && !skipCache) {
+                        cachedPage = StorageClientSDKManagerImpl.getManager().getCachedBlobItems(
+                                storageAccount, blobDirectory, PAGE_SIZE, null);
+                    }
+
+                    final boolean cached = cachedPage != null;
+                    final BlobItemPage blobItemPage = cached ? cachedPage :
+                            StorageClientSDKManagerImpl.getManager().getBlobItems(
+                                    storageAccount, blobDirectory, prefix, searchFlat, PAGE_SIZE, null);
+                    final List<BlobItem> pageItems = blobItemPage.getBlobItems();
+
+                    if (prefix.isEmpty() && revalidate) {
+                        revalidateCachedBlobItems(blobDirectory, cached, skipCache);
                     }
 
                     ApplicationManager.getApplication().invokeLater(new Runnable() {
@@ -328,33 +376,20 @@ public class BlobExplorerFileEditor implements FileEditor {
                                 model.removeRow(0);
                             }
 
-                            for (BlobItem blobItem : blobItems) {
-                                if (blobItem instanceof BlobDirectory) {
-                                    model.addRow(new Object[]{
-                                            UIHelperImpl.loadIcon("storagefolder.png"),
-                                            blobItem.getName(),
-                                            "",
-                                            "",
-                                            "",
-                                            blobItem.getUri()
-                                    });
-                                } else {
-                                    BlobFile blobFile = (BlobFile) blobItem;
-
-                                    model.addRow(new String[]{
-                                            "",
-                                            blobFile.getName(),
-                                            UIHelperImpl.readableFileSize(blobFile.getSize()),
-                                            new SimpleDateFormat().format(blobFile.getLastModified().getTime()),
-                                            blobFile.getContentType(),
-                                            blobFile.getUri()
-                                    });
-                                }
-                            }
+                            blobItems = new ArrayList<BlobItem>(pageItems);
+                            continuationToken = blobItemPage.getContinuationToken();
+                            pageLoading = false;
+                            queryPrefix = prefix;
+                            flatListing = searchFlat;
+                            cachedListing = cached;
+
+                            addBlobItemRows(pageItems);
 
                             setUIState(false);
 
                             blobListTable.clearSelection();
+
+                            loadNextPageIfNeeded();
                         }
                     });
                 } catch (AzureCmdException ex) {
@@ -365,6 +400,133 @@ public class BlobExplorerFileEditor implements FileEditor {
         });
     }
 
+    private void loadNextPageIfNeeded() {
+        JScrollPane scrollPane = (JScrollPane) SwingUtilities.getAncestorOfClass(JScrollPane.class, blobListTable);
+
+        if (scrollPane != null) {
+            BoundedRangeModel scrollModel = scrollPane.getVerticalScrollBar().getModel();
+
+            if (scrollModel.getValue() + scrollModel.getExtent() >= scrollModel.getMaximum() - PAGE_LOAD_THRESHOLD) {
+                loadNextPage();
+            }
+        }
+    }
+
+    private void loadNextPage() {
+        if (pageLoading || continuationToken == null || directoryQueue.peekLast() == null) {
+            return;
+        }
+
+        pageLoading = true;
+
+        final BlobDirectory blobDirectory = flatListing ? directoryQueue.peekFirst() : directoryQueue.peekLast();
+        final String pageContinuationToken = continuationToken;
+        final String prefix = queryPrefix;
+        final boolean searchFlat = flatListing;
+        final boolean cached = cachedListing;
+
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Loading more blobs...", false) {
+            @Override
+            public void run(@NotNull ProgressIndicator progressIndicator) {
+                try {
+                    progressIndicator.setIndeterminate(true);
+
+                    final BlobItemPage blobItemPage = cached ?
+                            StorageClientSDKManagerImpl.getManager().getCachedBlobItems(
+                                    storageAccount, blobDirectory, PAGE_SIZE, pageContinuationToken) :
+                            StorageClientSDKManagerImpl.getManager().getBlobItems(
+                                    storageAccount, blobDirectory, prefix, searchFlat, PAGE_SIZE, pageContinuationToken);
+
+                    ApplicationManager.getApplication().invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (!pageContinuationToken.equals(continuationToken)) {
+                                return;
+                            }
+
+                            if (blobItemPage == null) {
+                                fillGrid(false, false);
+                                return;
+                            }
+
+                            List<BlobItem> pageItems = blobItemPage.getBlobItems();
+
+                            blobItems.addAll(pageItems);
+                            continuationToken = blobItemPage.getContinuationToken();
+                            pageLoading = false;
+
+                            addBlobItemRows(pageItems);
+
+                            loadNextPageIfNeeded();
+                        }
+                    });
+                } catch (AzureCmdException ex) {
+                    pageLoading = false;
+
+                    DefaultLoader.getUIHelper().showException("An error occurred while attempting to query blob list.", ex,
+                            "Azure Services Explorer - Error Querying Blobs", false, true);
+                }
+            }
+        });
+    }
+
+    private void revalidateCachedBlobItems(final BlobDirectory blobDirectory, final boolean cached, final boolean force) {
+        ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    boolean changed = StorageClientSDKManagerImpl.getManager().refreshCachedBlobItems(
+                            storageAccount, blobDirectory, force);
+
+                    if (changed && cached) {
+                        ApplicationManager.getApplication().invokeLater(new Runnable() {
+                            @Override
+                            public void run() {
+                                if (cachedListing && blobDirectory == directoryQueue.peekLast()) {
+                                    fillGrid(false, false);
+                                }
+                            }
+                        });
+                    }
+                } catch (AzureCmdException ignored) {
+                }
+            }
+        });
+    }
+
+    @NotNull
+    private String getDisplayName(@NotNull BlobItem blobItem) {
+        return flatListing ? blobItem.getPath() : blobItem.getName();
+    }
+
+    private void addBlobItemRows(@NotNull List<BlobItem> pageItems) {
+        DefaultTableModel model = (DefaultTableModel) blobListTable.getModel();
+
+        for (BlobItem blobItem : pageItems) {
+            if (blobItem instanceof BlobDirectory) {
+                model.addRow(new Object[]{
+                        UIHelperImpl.loadIcon("storagefolder.png"),
+                        getDisplayName(blobItem),
+                        "",
+                        "",
+                        "",
+                        blobItem.getUri()
+                });
+            } else {
+                BlobFile blobFile = (BlobFile) blobItem;
+
+                model.addRow(new String[]{
+                        "",
+                        getDisplayName(blobFile),
+                        UIHelperImpl.readableFileSize(blobFile.getSize()),
+                        new SimpleDateFormat().format(blobFile.getLastModified().getTime()),
+                        blobFile.getContentType(),
+                        blobFile.getUri()
+                });
+            }
+        }
+    }
+
     private void setUIState(boolean loading) {
         if (loading) {
             blobListTable.setEnabled(false);
@@ -393,7 +555,7 @@ public class BlobExplorerFileEditor implements FileEditor {
             String name = blobListTable.getValueAt(blobListTable.getSelectedRow(), 1).toString();
 
             for (BlobItem item : blobItems) {
-                if (item instanceof BlobDirectory && item.getName().equals(name)) {
+                if (item instanceof BlobDirectory && getDisplayName(item).equals(name)) {
                     return (BlobDirectory) item;
                 }
             }
@@ -407,7 +569,7 @@ public class BlobExplorerFileEditor implements FileEditor {
             String name = blobListTable.getValueAt(blobListTable.getSelectedRow(), 1).toString();
 
             for (BlobItem item : blobItems) {
-                if (item instanceof BlobFile && item.getName().equals(name)) {
+                if (item instanceof BlobFile && getDisplayName(item).equals(name)) {
                     return (BlobFile) item;
                 }
             }
@@ -438,8 +600,11 @@ public class BlobExplorerFileEditor implements FileEditor {
         }
     }
 
-    private JPopupMenu createTablePopUp() {
+    private JPopupMenu createTablePopUp(@NotNull List<BlobItem> selectedItems) {
         JPopupMenu menu = new JPopupMenu();
+        boolean singleFileSelected = selectedItems.size() == 1 && selectedItems.get(0) instanceof BlobFile;
+        final String selectedPrefix = selectedItems.size() == 1 && selectedItems.get(0) instanceof BlobDirectory ?
+                selectedItems.get(0).getPath() : null;
 
         JMenuItem openMenu = new JMenuItem("Open");
         openMenu.addActionListener(new ActionListener() {
@@ -449,6 +614,22 @@ public class BlobExplorerFileEditor implements FileEditor {
             }
         });
 
+        JMenuItem previewMenu = new JMenuItem("Preview");
+        previewMenu.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                previewSelectedFile();
+            }
+        });
+
+        JMenuItem tailMenu = new JMenuItem("Tail");
+        tailMenu.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                tailSelectedFile();
+            }
+        });
+
         JMenuItem saveAsMenu = new JMenuItem("Save As");
         saveAsMenu.addActionListener(new ActionListener() {
             @Override
@@ -469,52 +650,253 @@ public class BlobExplorerFileEditor implements FileEditor {
         deleteMenu.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent actionEvent) {
-                deleteSelectedFile();
+                deleteSelectedItems();
+            }
+        });
+
+        JMenuItem deletePrefixMenu = new JMenuItem("Delete All With Prefix...");
+        deletePrefixMenu.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                deletePrefix(selectedPrefix);
             }
         });
 
+        openMenu.setEnabled(singleFileSelected);
+        previewMenu.setEnabled(singleFileSelected);
+        tailMenu.setEnabled(singleFileSelected);
+        saveAsMenu.setEnabled(singleFileSelected);
+        copyMenu.setEnabled(singleFileSelected);
+
         menu.add(openMenu);
+        menu.add(previewMenu);
+        menu.add(tailMenu);
         menu.add(saveAsMenu);
         menu.add(copyMenu);
         menu.add(deleteMenu);
+        menu.add(deletePrefixMenu);
 
         return menu;
     }
 
-    private void deleteSelectedFile() {
-        final BlobFile blobItem = getFileSelection();
+    private List<BlobItem> getSelectedItems() {
+        List<BlobItem> selectedItems = new ArrayList<BlobItem>();
 
-        if (blobItem != null) {
-            if (JOptionPane.showConfirmDialog(mainPanel, "Are you sure you want to delete this blob?", "Delete Blob", JOptionPane.YES_NO_OPTION, JOptionPane.INFORMATION_MESSAGE) == JOptionPane.OK_OPTION) {
-                setUIState(true);
+        for (int selectedRow : blobListTable.getSelectedRows()) {
+            String name = blobListTable.getValueAt(selectedRow, 1).toString();
+            boolean directory = blobListTable.getValueAt(selectedRow, 0) instanceof Icon;
 
-                ProgressManager.getInstance().run(new Task.Backgroundable(project, "Deleting blob...", false) {
-                    @Override
-                    public void run(@NotNull ProgressIndicator progressIndicator) {
-                        progressIndicator.setIndeterminate(true);
-                        try {
-                            StorageClientSDKManagerImpl.getManager().deleteBlobFile(storageAccount, blobItem);
+            for (BlobItem item : blobItems) {
+                if ((item instanceof BlobDirectory) == directory && getDisplayName(item).equals(name)) {
+                    selectedItems.add(item);
+                    break;
+                }
+            }
+        }
 
-                            if (blobItems.size() <= 1) {
-                                directoryQueue.clear();
-                                directoryQueue.addLast(StorageClientSDKManagerImpl.getManager().getRootDirectory(storageAccount, blobContainer));
+        return selectedItems;
+    }
 
-                                queryTextField.setText("");
-                            }
+    private void deleteSelectedItems() {
+        List<BlobFile> blobFiles = new ArrayList<BlobFile>();
+        List<BlobDirectory> blobDirectories = new ArrayList<BlobDirectory>();
+
+        for (BlobItem item : getSelectedItems()) {
+            if (item instanceof BlobDirectory) {
+                blobDirectories.add((BlobDirectory) item);
+            } else {
+                blobFiles.add((BlobFile) item);
+            }
+        }
+
+        if (blobFiles.isEmpty() && blobDirectories.isEmpty()) {
+            return;
+        }
+
+        String message = blobDirectories.isEmpty() ?
+                (blobFiles.size() == 1 ? "Are you sure you want to delete this blob?" :
+                        String.format("Are you sure you want to delete these %s blobs?", blobFiles.size())) :
+                String.format("Are you sure you want to delete %s blobs and everything under %s folders?",
+                        blobFiles.size(), blobDirectories.size());
 
-                            ApplicationManager.getApplication().invokeLater(new Runnable() {
+        if (JOptionPane.showConfirmDialog(mainPanel, message, "Delete Blob", JOptionPane.YES_NO_OPTION, JOptionPane.INFORMATION_MESSAGE) == JOptionPane.OK_OPTION) {
+            List<String> prefixes = new ArrayList<String>();
+
+            for (BlobDirectory blobDirectory : blobDirectories) {
+                prefixes.add(blobDirectory.getPath());
+            }
+
+            deleteBlobs(blobFiles, prefixes, blobDirectories);
+        }
+    }
+
+    private void deletePrefix(@Nullable String selectedPrefix) {
+        BlobDirectory blobDirectory = directoryQueue.peekLast();
+        String initialPrefix = selectedPrefix != null ? selectedPrefix :
+                (blobDirectory != null ? blobDirectory.getPath() : "") + queryTextField.getText();
+
+        Object prefix = JOptionPane.showInputDialog(mainPanel, "Delete every blob whose name starts with:",
+                "Delete Blobs", JOptionPane.WARNING_MESSAGE, null, null, initialPrefix);
+
+        if (prefix == null || prefix.toString().isEmpty()) {
+            return;
+        }
+
+        if (JOptionPane.showConfirmDialog(mainPanel,
+                String.format("Are you sure you want to delete every blob under \"%s\"?", prefix),
+                "Delete Blobs", JOptionPane.YES_NO_OPTION, JOptionPane.INFORMATION_MESSAGE) == JOptionPane.OK_OPTION) {
+            deleteBlobs(new ArrayList<BlobFile>(), Collections.singletonList(prefix.toString()),
+                    new ArrayList<BlobDirectory>());
+        }
+    }
+
+    private void deleteBlobs(@NotNull final List<BlobFile> blobFiles,
+                             @NotNull final List<String> prefixes,
+                             @NotNull final List<BlobDirectory> blobDirectories) {
+        setUIState(true);
+
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Deleting blobs...", true) {
+            @Override
+            public void run(@NotNull final ProgressIndicator progressIndicator) {
+                boolean failed = false;
+
+                try {
+                    progressIndicator.setIndeterminate(true);
+
+                    StorageClientSDKManagerImpl.getManager().deleteBlobs(storageAccount, blobContainer, blobFiles,
+                            prefixes, new CallableSingleArg<Void, String>() {
+                                @Override
+                                public Void call(final String path) throws Exception {
+                                    ApplicationManager.getApplication().invokeLater(new Runnable() {
+                                        @Override
+                                        public void run() {
+                                            removeBlobItemRow(path);
+                                        }
+                                    });
+
+                                    return null;
+                                }
+                            }, new CallableSingleArg<Void, BlobDeleteProgress>() {
                                 @Override
-                                public void run() {
-                                    fillGrid();
+                                public Void call(BlobDeleteProgress progress) throws Exception {
+                                    if (progressIndicator.isCanceled()) {
+                                        throw new InterruptedException();
+                                    }
+
+                                    int completed = progress.getDeletedBlobs() + progress.getFailedBlobs();
+
+                                    progressIndicator.setText2(String.format("%s blobs deleted, %s failed",
+                                            progress.getDeletedBlobs(), progress.getFailedBlobs()));
+
+                                    // the total is only known once the prefixes have been listed
+                                    if (progress.isListingComplete()) {
+                                        progressIndicator.setIndeterminate(false);
+                                        progressIndicator.setFraction((double) completed / progress.getQueuedBlobs());
+                                    }
+
+                                    return null;
                                 }
-                            });
-                        } catch (AzureCmdException ex) {
-                            DefaultLoader.getUIHelper().showException("An error occurred while attempting to delete blob.", ex,
-                                    "Azure Services Explorer - Error Deleting Blob", false, true);
+                            }, new BlobTransferOptions());
+                } catch (AzureCmdException ex) {
+                    failed = true;
+
+                    if (!progressIndicator.isCanceled()) {
+                        DefaultLoader.getUIHelper().showException("An error occurred while attempting to delete blobs.", ex,
+                                "Azure Services Explorer - Error Deleting Blob", false, true);
+                    }
+                }
+
+                final boolean reload = failed;
+
+                ApplicationManager.getApplication().invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!reload) {
+                            for (BlobDirectory blobDirectory : blobDirectories) {
+                                removeBlobItemRow(blobDirectory.getPath());
+                            }
+                        }
+
+                        // a virtual directory disappears with its last blob
+                        if (blobItems.isEmpty() && directoryQueue.size() > 1) {
+                            directoryQueue.clear();
+                            queryTextField.setText("");
+                            reloadGrid();
+                        } else if (reload || !prefixes.isEmpty() && blobDirectories.isEmpty()) {
+                            reloadGrid();
+                        } else {
+                            setUIState(false);
                         }
                     }
                 });
             }
+        });
+    }
+
+    private void removeBlobItemRow(@NotNull String path) {
+        BlobItem removedItem = null;
+
+        for (Iterator<BlobItem> iterator = blobItems.iterator(); iterator.hasNext(); ) {
+            BlobItem item = iterator.next();
+
+            if (item.getPath().equals(path)) {
+                removedItem = item;
+                iterator.remove();
+                break;
+            }
+        }
+
+        if (removedItem != null) {
+            DefaultTableModel model = (DefaultTableModel) blobListTable.getModel();
+            String name = getDisplayName(removedItem);
+            boolean directory = removedItem instanceof BlobDirectory;
+
+            for (int row = 0; row < model.getRowCount(); row++) {
+                if ((model.getValueAt(row, 0) instanceof Icon) == directory && name.equals(model.getValueAt(row, 1))) {
+                    model.removeRow(row);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void previewSelectedFile() {
+        final BlobFile fileSelection = getFileSelection();
+
+        if (fileSelection == null) {
+            return;
+        }
+
+        // the preview pins every page to the listed ETag, which a cached listing may no longer match
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Opening blob preview...", false) {
+            @Override
+            public void run(@NotNull ProgressIndicator progressIndicator) {
+                try {
+                    progressIndicator.setIndeterminate(true);
+
+                    BlobFile refreshedFile = StorageClientSDKManagerImpl.getManager().refreshBlobFile(storageAccount,
+                            fileSelection);
+                    final BlobFile blobFile = refreshedFile != null ? refreshedFile : fileSelection;
+
+                    ApplicationManager.getApplication().invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            new BlobPreviewForm(project, storageAccount, blobFile).show();
+                        }
+                    });
+                } catch (AzureCmdException ex) {
+                    DefaultLoader.getUIHelper().showException("An error occurred while attempting to read the blob.", ex,
+                            "Azure Services Explorer - Error Previewing Blob", false, true);
+                }
+            }
+        });
+    }
+
+    private void tailSelectedFile() {
+        BlobFile fileSelection = getFileSelection();
+
+        if (fileSelection != null) {
+            new BlobTailForm(project, storageAccount, fileSelection).show();
         }
     }
 
@@ -554,87 +936,47 @@ public class BlobExplorerFileEditor implements FileEditor {
         final BlobFile fileSelection = getFileSelection();
 
         if (fileSelection != null) {
-            ProgressManager.getInstance().run(new Task.Backgroundable(project, "Downloading blob...", true) {
-                @Override
-                public void run(@NotNull final ProgressIndicator progressIndicator) {
-                    try {
-                        progressIndicator.setIndeterminate(false);
-
-                        if (!targetFile.exists()) {
-                            if (!targetFile.createNewFile()) {
-                                throw new IOException("File not created");
-                            }
-                        }
-
-                        final BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(new FileOutputStream(targetFile), 65536) {
-                            private long runningCount = 0;
-
-                            @Override
-                            public synchronized void write(@NotNull byte[] bytes, int i, int i1) throws IOException {
-                                super.write(bytes, i, i1);
-
-                                runningCount += i1;
-
-                                double progress = (double) runningCount / fileSelection.getSize();
-                                progressIndicator.setFraction(progress);
-                                progressIndicator.setText2(String.format("%s%% downloaded", (int) (progress * 100)));
+            BlobTransferManager.getManager().enqueueDownload(storageAccount, fileSelection, targetFile,
+                    BlobTransferJob.Priority.NORMAL, new CallableSingleArg<Void, BlobTransferJob>() {
+                        @Override
+                        public Void call(BlobTransferJob job) throws Exception {
+                            if (job.getState() == BlobTransferJob.State.FAILED) {
+                                DefaultLoader.getUIHelper().showError("An error occurred while attempting to download Blob: " +
+                                        job.getErrorMessage(), "Azure Services Explorer - Error Downloading Blob");
+                            } else if (job.getState() == BlobTransferJob.State.COMPLETED && open && targetFile.exists()) {
+                                openFile(targetFile);
                             }
-                        };
 
-                        try {
-                            Future<?> future = ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
-                                @Override
-                                public void run() {
-                                    try {
-                                        StorageClientSDKManagerImpl.getManager().downloadBlobFileContent(storageAccount, fileSelection, bufferedOutputStream);
-
-                                        if (open && targetFile.exists()) {
-                                            Desktop.getDesktop().open(targetFile);
-                                        }
-                                    } catch (AzureCmdException e) {
-                                        Throwable connectionFault = e.getCause().getCause();
-
-                                        progressIndicator.setText("Error downloading Blob");
-                                        progressIndicator.setText2((connectionFault instanceof SocketTimeoutException) ? "Connection timed out" : connectionFault.getMessage());
-                                    } catch (IOException ex) {
-                                        try {
-                                            final Process p;
-                                            Runtime runtime = Runtime.getRuntime();
-                                            p = runtime.exec(
-                                                    new String[]{"open", "-R", targetFile.getName()},
-                                                    null,
-                                                    targetFile.getParentFile());
-
-                                            InputStream errorStream = p.getErrorStream();
-                                            String errResponse = new String(IOUtils.readFully(errorStream, -1, true));
-
-                                            if (p.waitFor() != 0) {
-                                                throw new Exception(errResponse);
-                                            }
-                                        } catch (Exception e) {
-                                            progressIndicator.setText("Error openning file");
-                                            progressIndicator.setText2(ex.getMessage());
-                                        }
-                                    }
-                                }
-                            });
+                            return null;
+                        }
+                    });
 
-                            while (!future.isDone()) {
-                                progressIndicator.checkCanceled();
+            BlobTransfersToolWindowFactory.show(project);
+        }
+    }
 
-                                if (progressIndicator.isCanceled()) {
-                                    future.cancel(true);
-                                }
-                            }
-                        } finally {
-                            bufferedOutputStream.close();
-                        }
-                    } catch (IOException e) {
-                        DefaultLoader.getUIHelper().showException("An error occurred while attempting to download Blob.", e,
-                                "Azure Services Explorer - Error Downloading Blob", false, true);
-                    }
+    private static void openFile(File targetFile) {
+        try {
+            Desktop.getDesktop().open(targetFile);
+        } catch (IOException ex) {
+            try {
+                final Process p;
+                Runtime runtime = Runtime.getRuntime();
+                p = runtime.exec(
+                        new String[]{"open", "-R", targetFile.getName()},
+                        null,
+                        targetFile.getParentFile());
+
+                InputStream errorStream = p.getErrorStream();
+                String errResponse = new String(IOUtils.readFully(errorStream, -1, true));
+
+                if (p.waitFor() != 0) {
+                    throw new Exception(errResponse);
                 }
-            });
+            } catch (Exception e) {
+                DefaultLoader.getUIHelper().showException("An error occurred while attempting to open the file.", ex,
+                        "Azure Services Explorer - Error Opening File", false, true);
+            }
         }
     }
 
@@ -655,123 +997,108 @@ public class BlobExplorerFileEditor implements FileEditor {
 
                 path = path + selectedFile.getName();
 
-                uploadFile(path, selectedFile);
+                if (selectedFile.isDirectory()) {
+                    uploadDirectory(path + "/", selectedFile);
+                } else {
+                    uploadFile(path, selectedFile, form.isPageBlob(), form.isDeltaUpload());
+                }
             }
         });
 
         form.show();
     }
 
-    private void uploadFile(final String path, final File selectedFile) {
-        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Uploading blob...", true) {
-            @Override
-            public void run(@NotNull final ProgressIndicator progressIndicator) {
-                try {
-                    final BlobDirectory blobDirectory = directoryQueue.peekLast();
-
-                    final BufferedInputStream bufferedInputStream = new BufferedInputStream(new FileInputStream(selectedFile));
-
-                    progressIndicator.setIndeterminate(false);
-                    progressIndicator.setText("Uploading blob...");
-                    progressIndicator.setText2("0% uploaded");
+    private void uploadFile(final String path, final File selectedFile, final boolean pageBlob, final boolean deltaUpload) {
+        BlobTransferManager.getManager().enqueueUpload(storageAccount, blobContainer.getName(), path, selectedFile,
+                pageBlob, deltaUpload, BlobTransferJob.Priority.NORMAL, new CallableSingleArg<Void, BlobTransferJob>() {
+                    @Override
+                    public Void call(BlobTransferJob job) throws Exception {
+                        if (job.getState() == BlobTransferJob.State.FAILED) {
+                            DefaultLoader.getUIHelper().showError("An error occurred while attempting to upload Blob: " +
+                                    job.getErrorMessage(), "Azure Services Explorer - Error Uploading Blob");
+                        } else if (job.getState() == BlobTransferJob.State.COMPLETED) {
+                            showUploadedBlob(path);
+                        }
 
-                    try {
-                        final CallableSingleArg<Void, Long> callable = new CallableSingleArg<Void, Long>() {
-                            @Override
-                            public Void call(Long uploadedBytes) throws Exception {
-                                double progress = ((double) uploadedBytes) / selectedFile.length();
+                        return null;
+                    }
+                });
 
-                                progressIndicator.setFraction(progress);
-                                progressIndicator.setText2(String.format("%s%% uploaded", (int) (progress * 100)));
+        BlobTransfersToolWindowFactory.show(project);
+    }
 
-                                return null;
-                            }
-                        };
+    private void uploadDirectory(final String path, final File selectedDirectory) {
+        BlobTransferManager.getManager().enqueueDirectoryUpload(storageAccount, blobContainer.getName(), path,
+                selectedDirectory, BlobTransferJob.Priority.NORMAL, new CallableSingleArg<Void, BlobTransferJob>() {
+                    @Override
+                    public Void call(BlobTransferJob job) throws Exception {
+                        if (job.getState() == BlobTransferJob.State.FAILED) {
+                            DefaultLoader.getUIHelper().showError("An error occurred while attempting to upload the folder: " +
+                                    job.getErrorMessage(), "Azure Services Explorer - Error Uploading Folder");
+                        } else if (job.getState() == BlobTransferJob.State.COMPLETED) {
+                            showUploadedBlob(path);
+                        }
 
-                        Future<Void> future = ApplicationManager.getApplication().executeOnPooledThread(new Callable<Void>() {
-                            @Override
-                            public Void call() throws AzureCmdException {
-                                try {
-                                    StorageClientSDKManagerImpl.getManager().uploadBlobFileContent(
-                                            storageAccount,
-                                            blobContainer,
-                                            path,
-                                            bufferedInputStream,
-                                            callable,
-                                            1024 * 1024,
-                                            selectedFile.length());
-                                } finally {
-                                    try {
-                                        bufferedInputStream.close();
-                                    } catch (IOException ignored) {
-                                    }
-                                }
+                        return null;
+                    }
+                });
 
-                                return null;
-                            }
-                        });
+        BlobTransfersToolWindowFactory.show(project);
+    }
 
-                        while (!future.isDone()) {
-                            Thread.sleep(500);
-                            progressIndicator.checkCanceled();
+    private void showUploadedBlob(String path) {
+        // runs on the transfer job thread; only the final queue swap happens on the EDT
+        final LinkedList<BlobDirectory> uploadedDirectories = new LinkedList<BlobDirectory>();
 
-                            if (progressIndicator.isCanceled()) {
-                                future.cancel(true);
-                                bufferedInputStream.close();
+        try {
+            uploadedDirectories.addLast(StorageClientSDKManagerImpl.getManager().getRootDirectory(storageAccount, blobContainer));
 
-                                for (BlobItem blobItem : StorageClientSDKManagerImpl.getManager().getBlobItems(storageAccount, blobDirectory)) {
-                                    if (blobItem instanceof BlobFile && blobItem.getPath().equals(path)) {
-                                        StorageClientSDKManagerImpl.getManager().deleteBlobFile(storageAccount, (BlobFile) blobItem);
-                                    }
-                                }
-                            }
-                        }
+            for (String pathDir : path.split("/")) {
+                BlobDirectory blobDirectory = findBlobDirectory(uploadedDirectories.getLast(), pathDir);
 
-                        try {
-                            directoryQueue.clear();
-                            directoryQueue.addLast(StorageClientSDKManagerImpl.getManager().getRootDirectory(storageAccount, blobContainer));
+                if (blobDirectory == null) {
+                    break;
+                }
 
-                            for (String pathDir : path.split("/")) {
-                                for (BlobItem blobItem : StorageClientSDKManagerImpl.getManager().getBlobItems(storageAccount, directoryQueue.getLast())) {
-                                    if (blobItem instanceof BlobDirectory && blobItem.getName().equals(pathDir)) {
-                                        directoryQueue.addLast((BlobDirectory) blobItem);
-                                    }
-                                }
-                            }
-                        } catch (AzureCmdException e) {
-                            DefaultLoader.getUIHelper().showException("An error occurred while attempting to show new blob", e,
-                                    "Azure Services Explorer - Error Showing New Blob", false, true);
-                        }
+                uploadedDirectories.addLast(blobDirectory);
+            }
+        } catch (AzureCmdException e) {
+            DefaultLoader.getUIHelper().showException("An error occurred while attempting to show new blob", e,
+                    "Azure Services Explorer - Error Showing New Blob", false, true);
+        }
 
-                        ApplicationManager.getApplication().invokeLater(new Runnable() {
-                            @Override
-                            public void run() {
-                                fillGrid();
-                            }
-                        });
-                    } catch (Exception e) {
-                        Throwable connectionFault = e.getCause();
-                        Throwable realFault = null;
+        ApplicationManager.getApplication().invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                if (!uploadedDirectories.isEmpty()) {
+                    directoryQueue = uploadedDirectories;
+                }
 
-                        if (connectionFault != null) {
-                            realFault = connectionFault.getCause();
-                        }
+                reloadGrid();
+            }
+        });
+    }
 
-                        progressIndicator.setText("Error uploading Blob");
-                        String message = realFault == null ? null : realFault.getMessage();
+    @Nullable
+    private BlobDirectory findBlobDirectory(@NotNull BlobDirectory parentDirectory, @NotNull String name)
+            throws AzureCmdException {
+        String continuationToken = null;
 
-                        if (connectionFault != null && message == null) {
-                            message = "Error type " + connectionFault.getClass().getName();
-                        }
+        // the name as prefix narrows the listing to the directory and its few lexical neighbours
+        do {
+            BlobItemPage blobItemPage = StorageClientSDKManagerImpl.getManager().getBlobItems(storageAccount,
+                    parentDirectory, name, false, PAGE_SIZE, continuationToken);
 
-                        progressIndicator.setText2((connectionFault instanceof SocketTimeoutException) ? "Connection timed out" : message);
-                    }
-                } catch (IOException e) {
-                    DefaultLoader.getUIHelper().showException("An error occurred while attempting to upload Blob.", e,
-                            "Azure Services Explorer - Error Uploading Blob", false, true);
+            for (BlobItem blobItem : blobItemPage.getBlobItems()) {
+                if (blobItem instanceof BlobDirectory && blobItem.getName().equals(name)) {
+                    return (BlobDirectory) blobItem;
                 }
             }
-        });
+
+            continuationToken = blobItemPage.getContinuationToken();
+        } while (continuationToken != null);
+
+        return null;
     }
 
     @NotNull
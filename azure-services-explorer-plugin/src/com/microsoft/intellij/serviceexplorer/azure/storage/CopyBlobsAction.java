@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.intellij.serviceexplorer.azure.storage;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.microsoft.tooling.msservices.helpers.Name;
+import com.microsoft.tooling.msservices.model.storage.BlobContainer;
+import com.microsoft.tooling.msservices.model.storage.ClientStorageAccount;
+import com.microsoft.tooling.msservices.serviceexplorer.NodeActionEvent;
+import com.microsoft.tooling.msservices.serviceexplorer.NodeActionListener;
+import com.microsoft.tooling.msservices.serviceexplorer.azure.storage.ContainerNode;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+@Name("Copy blobs")
+public class CopyBlobsAction extends NodeActionListener {
+    static class CopiedBlobs {
+        final ClientStorageAccount storageAccount;
+        final BlobContainer blobContainer;
+        final String prefix;
+
+        CopiedBlobs(@NotNull ClientStorageAccount storageAccount, @NotNull BlobContainer blobContainer,
+                    @NotNull String prefix) {
+            this.storageAccount = storageAccount;
+            this.blobContainer = blobContainer;
+            this.prefix = prefix;
+        }
+    }
+
+    private static CopiedBlobs copiedBlobs;
+
+    private ContainerNode containerNode;
+
+    public CopyBlobsAction(ContainerNode containerNode) {
+        this.containerNode = containerNode;
+    }
+
+    @Override
+    public void actionPerformed(NodeActionEvent e) {
+        String prefix = Messages.showInputDialog((Project) containerNode.getProject(),
+                "Copy the blobs whose names start with (leave empty for all blobs):",
+                "Copy Blobs", null, "", null);
+
+        if (prefix != null) {
+            setCopiedBlobs(new CopiedBlobs(containerNode.getStorageAccount(), containerNode.getBlobContainer(),
+                    prefix.trim()));
+        }
+    }
+
+    @Nullable
+    static synchronized CopiedBlobs getCopiedBlobs() {
+        return copiedBlobs;
+    }
+
+    private static synchronized void setCopiedBlobs(@NotNull CopiedBlobs copiedBlobs) {
+        CopyBlobsAction.copiedBlobs = copiedBlobs;
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.intellij.serviceexplorer.azure.storage;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.text.StringUtil;
+import com.microsoft.tooling.msservices.components.DefaultLoader;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.tooling.msservices.helpers.Name;
+import com.microsoft.tooling.msservices.helpers.azure.AzureCmdException;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.BlobTransferOptions;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManagerImpl;
+import com.microsoft.tooling.msservices.model.storage.BlobCopyProgress;
+import com.microsoft.tooling.msservices.serviceexplorer.NodeActionEvent;
+import com.microsoft.tooling.msservices.serviceexplorer.NodeActionListener;
+import com.microsoft.tooling.msservices.serviceexplorer.azure.storage.ContainerNode;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+
+@Name("Paste blobs")
+public class PasteBlobsAction extends NodeActionListener {
+    private ContainerNode containerNode;
+
+    public PasteBlobsAction(ContainerNode containerNode) {
+        this.containerNode = containerNode;
+    }
+
+    @Override
+    public void actionPerformed(NodeActionEvent e) {
+        final Project project = (Project) containerNode.getProject();
+        final CopyBlobsAction.CopiedBlobs copiedBlobs = CopyBlobsAction.getCopiedBlobs();
+
+        if (copiedBlobs == null) {
+            Messages.showInfoMessage(project, "Use \"Copy blobs\" on a container first.", "Paste Blobs");
+            return;
+        }
+
+        String source = copiedBlobs.storageAccount.getName() + "/" + copiedBlobs.blobContainer.getName() + "/" +
+                copiedBlobs.prefix;
+        String target = containerNode.getStorageAccount().getName() + "/" + containerNode.getBlobContainer().getName();
+
+        if (JOptionPane.showConfirmDialog(null,
+                String.format("Copy the blobs in %s* to %s?\nExisting blobs with the same names will be replaced.",
+                        source, target),
+                "Service Explorer",
+                JOptionPane.YES_NO_OPTION,
+                JOptionPane.INFORMATION_MESSAGE) != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Copying blobs...", true) {
+            @Override
+            public void run(@NotNull final ProgressIndicator progressIndicator) {
+                try {
+                    progressIndicator.setIndeterminate(false);
+
+                    BlobCopyProgress result = StorageClientSDKManagerImpl.getManager().copyBlobs(
+                            copiedBlobs.storageAccount, copiedBlobs.blobContainer, copiedBlobs.prefix,
+                            containerNode.getStorageAccount(), containerNode.getBlobContainer(),
+                            new CallableSingleArg<Void, BlobCopyProgress>() {
+                                @Override
+                                public Void call(BlobCopyProgress progress) throws Exception {
+                                    if (progressIndicator.isCanceled()) {
+                                        throw new InterruptedException();
+                                    }
+
+                                    progressIndicator.setText2(String.format("%s of %s blobs copied (%s of %s)",
+                                            progress.getCompletedBlobs(), progress.getStartedBlobs(),
+                                            StringUtil.formatFileSize(progress.getCopiedBytes()),
+                                            StringUtil.formatFileSize(progress.getTotalBytes())));
+                                    progressIndicator.setFraction(progress.getTotalBytes() > 0 ?
+                                            (double) progress.getCopiedBytes() / progress.getTotalBytes() : 0);
+
+                                    return null;
+                                }
+                            }, new BlobTransferOptions());
+
+                    progressIndicator.setText2(String.format("%s blobs copied", result.getCompletedBlobs()));
+                } catch (AzureCmdException ex) {
+                    if (!progressIndicator.isCanceled()) {
+                        DefaultLoader.getUIHelper().showException("An error occurred while attempting to copy the blobs.",
+                                ex, "Azure Services Explorer - Error Copying Blobs", false, true);
+                    }
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.intellij.serviceexplorer.azure.storage;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.text.StringUtil;
+import com.microsoft.intellij.components.BlobTransfersToolWindowFactory;
+import com.microsoft.intellij.forms.SyncContainerForm;
+import com.microsoft.tooling.msservices.components.DefaultLoader;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.tooling.msservices.helpers.Name;
+import com.microsoft.tooling.msservices.helpers.azure.AzureCmdException;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.BlobTransferManager;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.BlobTransferOptions;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManagerImpl;
+import com.microsoft.tooling.msservices.model.storage.BlobSyncSummary;
+import com.microsoft.tooling.msservices.model.storage.BlobTransferJob;
+import com.microsoft.tooling.msservices.serviceexplorer.NodeActionEvent;
+import com.microsoft.tooling.msservices.serviceexplorer.NodeActionListener;
+import com.microsoft.tooling.msservices.serviceexplorer.azure.storage.ContainerNode;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.io.File;
+
+@Name("Sync with local folder")
+public class SyncContainerAction extends NodeActionListener {
+    private ContainerNode containerNode;
+
+    public SyncContainerAction(ContainerNode containerNode) {
+        this.containerNode = containerNode;
+    }
+
+    @Override
+    public void actionPerformed(NodeActionEvent e) {
+        final Project project = (Project) containerNode.getProject();
+        final SyncContainerForm form = new SyncContainerForm(project, containerNode.getBlobContainer().getName());
+
+        form.setSyncSelected(new Runnable() {
+            @Override
+            public void run() {
+                compare(project, form.getLocalFolder(), form.getPrefix(), form.getMode());
+            }
+        });
+
+        form.show();
+    }
+
+    private void compare(@NotNull final Project project,
+                         @NotNull final File localFolder,
+                         @NotNull final String prefix,
+                         @NotNull final BlobSyncSummary.Mode mode) {
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Comparing folder and container...", true) {
+            @Override
+            public void run(@NotNull final ProgressIndicator progressIndicator) {
+                try {
+                    progressIndicator.setIndeterminate(true);
+
+                    BlobSyncSummary summary = StorageClientSDKManagerImpl.getManager().syncBlobDirectory(
+                            containerNode.getStorageAccount(), containerNode.getBlobContainer(), prefix, localFolder,
+                            mode, true, null, new CallableSingleArg<Void, BlobSyncSummary>() {
+                                @Override
+                                public Void call(BlobSyncSummary summary) throws Exception {
+                                    if (progressIndicator.isCanceled()) {
+                                        throw new InterruptedException();
+                                    }
+
+                                    return null;
+                                }
+                            }, new BlobTransferOptions());
+
+                    confirm(project, localFolder, prefix, mode, summary);
+                } catch (AzureCmdException ex) {
+                    if (!progressIndicator.isCanceled()) {
+                        DefaultLoader.getUIHelper().showException("An error occurred while attempting to sync the container.",
+                                ex, "Azure Services Explorer - Error Syncing Container", false, true);
+                    }
+                }
+            }
+        });
+    }
+
+    private void sync(@NotNull Project project,
+                      @NotNull File localFolder,
+                      @NotNull String prefix,
+                      @NotNull BlobSyncSummary.Mode mode,
+                      @NotNull BlobSyncSummary plan) {
+        // the transfer queue runs the reviewed plan and aborts if the folder or the container no longer match it
+        BlobTransferManager.getManager().enqueueSync(containerNode.getStorageAccount(),
+                containerNode.getBlobContainer().getName(), prefix, localFolder, mode, plan,
+                BlobTransferJob.Priority.NORMAL, new CallableSingleArg<Void, BlobTransferJob>() {
+                    @Override
+                    public Void call(BlobTransferJob job) throws Exception {
+                        if (job.getState() == BlobTransferJob.State.FAILED) {
+                            DefaultLoader.getUIHelper().showError("An error occurred while attempting to sync the container: " +
+                                    job.getErrorMessage(), "Azure Services Explorer - Error Syncing Container");
+                        }
+
+                        return null;
+                    }
+                });
+
+        BlobTransfersToolWindowFactory.show(project);
+    }
+
+    private void confirm(@NotNull final Project project,
+                         @NotNull final File localFolder,
+                         @NotNull final String prefix,
+                         @NotNull final BlobSyncSummary.Mode mode,
+                         @NotNull final BlobSyncSummary summary) {
+        ApplicationManager.getApplication().invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                StringBuilder message = new StringBuilder();
+
+                appendAction(message, summary, BlobSyncSummary.Action.UPLOAD, "Upload %s files (%s)");
+                appendAction(message, summary, BlobSyncSummary.Action.DOWNLOAD, "Download %s blobs (%s)");
+                appendAction(message, summary, BlobSyncSummary.Action.DELETE_REMOTE, "Delete %s blobs");
+                appendAction(message, summary, BlobSyncSummary.Action.DELETE_LOCAL, "Delete %s local files");
+
+                if (message.length() == 0) {
+                    Messages.showInfoMessage(project, String.format("The folder and the container are in sync " +
+                            "(%s files unchanged).", summary.getUnchangedCount()), "Sync");
+                    return;
+                }
+
+                message.append(String.format("%s files unchanged\n\nContinue?", summary.getUnchangedCount()));
+
+                if (JOptionPane.showConfirmDialog(null,
+                        message.toString(),
+                        "Service Explorer",
+                        JOptionPane.YES_NO_OPTION,
+                        JOptionPane.INFORMATION_MESSAGE) == JOptionPane.YES_OPTION) {
+                    sync(project, localFolder, prefix, mode, summary);
+                }
+            }
+        });
+    }
+
+    private static void appendAction(@NotNull StringBuilder message,
+                                     @NotNull BlobSyncSummary summary,
+                                     @NotNull BlobSyncSummary.Action action,
+                                     @NotNull String format) {
+        long count = summary.getPlannedCount(action);
+
+        if (count > 0) {
+            message.append(String.format(format, count, StringUtil.formatFileSize(summary.getPlannedBytes(action))))
+                    .append('\n');
+        }
+    }
+}
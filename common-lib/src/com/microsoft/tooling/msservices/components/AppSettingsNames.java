@@ -30,6 +30,10 @@ package com.microsoft.tooling.msservices.components;
 public class AppSettingsNames {
     public static final String CURRENT_PLUGIN_VERSION = "com.microsoft.intellij.PluginVersion";
     public static final String EXTERNAL_STORAGE_ACCOUNT_LIST = "com.microsoft.intellij.ExternalStorageAccountList";
+    public static final String BLOB_TRANSFER_QUEUE = "com.microsoft.intellij.BlobTransferQueue";
+    public static final String BLOB_TRANSFER_GLOBAL_BANDWIDTH = "com.microsoft.intellij.BlobTransferGlobalBandwidth";
+    public static final String BLOB_TRANSFER_ACCOUNT_BANDWIDTH = "com.microsoft.intellij.BlobTransferAccountBandwidth";
+    public static final String BLOB_TRANSFER_COMPRESSION = "com.microsoft.intellij.BlobTransferCompression";
 
     public static final String AAD_AUTHENTICATION_RESULTS = "com.microsoft.tooling.msservices.AADAuthenticationResults";
     public static final String O365_USER_INFO = "com.microsoft.tooling.msservices.O365UserInfo";
@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.microsoft.tooling.msservices.components.AppSettingsNames;
+import com.microsoft.tooling.msservices.components.DefaultLoader;
+import com.microsoft.tooling.msservices.helpers.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BandwidthManager {
+    private static BandwidthManager manager;
+
+    private final BandwidthThrottle globalThrottle = new BandwidthThrottle(null);
+    private final Map<String, BandwidthThrottle> accountThrottles = new HashMap<String, BandwidthThrottle>();
+
+    private BandwidthManager() {
+    }
+
+    @NotNull
+    public static synchronized BandwidthManager getManager() {
+        if (manager == null) {
+            manager = new BandwidthManager();
+        }
+
+        return manager;
+    }
+
+    public synchronized void restore() {
+        String globalLimit = DefaultLoader.getIdeHelper().getProperty(AppSettingsNames.BLOB_TRANSFER_GLOBAL_BANDWIDTH);
+
+        if (globalLimit != null) {
+            globalThrottle.setBytesPerSecond(parseLimit(globalLimit));
+        }
+
+        String[] accountLimits = DefaultLoader.getIdeHelper().getProperties(AppSettingsNames.BLOB_TRANSFER_ACCOUNT_BANDWIDTH);
+
+        if (accountLimits != null) {
+            for (String accountLimit : accountLimits) {
+                int separator = accountLimit.lastIndexOf('=');
+
+                if (separator > 0) {
+                    getThrottle(accountLimit.substring(0, separator))
+                            .setBytesPerSecond(parseLimit(accountLimit.substring(separator + 1)));
+                }
+            }
+        }
+    }
+
+    public long getGlobalLimit() {
+        return globalThrottle.getBytesPerSecond();
+    }
+
+    public synchronized void setGlobalLimit(long bytesPerSecond) {
+        globalThrottle.setBytesPerSecond(bytesPerSecond);
+
+        persist();
+    }
+
+    public synchronized long getAccountLimit(@NotNull String accountName) {
+        BandwidthThrottle throttle = accountThrottles.get(accountName);
+
+        return throttle != null ? throttle.getBytesPerSecond() : 0;
+    }
+
+    public synchronized void setAccountLimit(@NotNull String accountName, long bytesPerSecond) {
+        getThrottle(accountName).setBytesPerSecond(bytesPerSecond);
+
+        persist();
+    }
+
+    @NotNull
+    synchronized BandwidthThrottle getThrottle(@NotNull String accountName) {
+        BandwidthThrottle throttle = accountThrottles.get(accountName);
+
+        if (throttle == null) {
+            throttle = new BandwidthThrottle(globalThrottle);
+            accountThrottles.put(accountName, throttle);
+        }
+
+        return throttle;
+    }
+
+    private void persist() {
+        if (globalThrottle.getBytesPerSecond() > 0) {
+            DefaultLoader.getIdeHelper().setProperty(AppSettingsNames.BLOB_TRANSFER_GLOBAL_BANDWIDTH,
+                    String.valueOf(globalThrottle.getBytesPerSecond()));
+        } else {
+            DefaultLoader.getIdeHelper().unsetProperty(AppSettingsNames.BLOB_TRANSFER_GLOBAL_BANDWIDTH);
+        }
+
+        List<String> accountLimits = new ArrayList<String>();
+
+        for (Map.Entry<String, BandwidthThrottle> entry : accountThrottles.entrySet()) {
+            if (entry.getValue().getBytesPerSecond() > 0) {
+                accountLimits.add(entry.getKey() + "=" + entry.getValue().getBytesPerSecond());
+            }
+        }
+
+        if (accountLimits.isEmpty()) {
+            DefaultLoader.getIdeHelper().unsetProperty(AppSettingsNames.BLOB_TRANSFER_ACCOUNT_BANDWIDTH);
+        } else {
+            DefaultLoader.getIdeHelper().setProperties(AppSettingsNames.BLOB_TRANSFER_ACCOUNT_BANDWIDTH,
+                    accountLimits.toArray(new String[accountLimits.size()]));
+        }
+    }
+
+    private static long parseLimit(@NotNull String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
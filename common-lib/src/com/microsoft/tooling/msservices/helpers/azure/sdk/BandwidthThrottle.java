@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.microsoft.tooling.msservices.helpers.NotNull;
+import com.microsoft.tooling.msservices.helpers.Nullable;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+
+class BandwidthThrottle {
+    private static final int CHUNK_SIZE = 16 * 1024;
+
+    private final BandwidthThrottle parent;
+    private final RateLimiter rateLimiter = RateLimiter.create(Double.MAX_VALUE);
+    private volatile long bytesPerSecond;
+
+    BandwidthThrottle(@Nullable BandwidthThrottle parent) {
+        this.parent = parent;
+    }
+
+    long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    void setBytesPerSecond(long bytesPerSecond) {
+        this.bytesPerSecond = Math.max(0, bytesPerSecond);
+        rateLimiter.setRate(bytesPerSecond > 0 ? bytesPerSecond : Double.MAX_VALUE);
+    }
+
+    void acquire(int bytes) throws InterruptedIOException {
+        while (bytes > 0) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException();
+            }
+
+            // small chunks let concurrent transfers take turns instead of one of them draining the bucket
+            int chunk = Math.min(CHUNK_SIZE, bytes);
+
+            if (bytesPerSecond > 0) {
+                rateLimiter.acquire(chunk);
+            }
+
+            if (parent != null) {
+                parent.acquire(chunk);
+            }
+
+            bytes -= chunk;
+        }
+    }
+
+    @NotNull
+    static InputStream wrap(@NotNull InputStream inputStream, @Nullable final BandwidthThrottle throttle) {
+        if (throttle == null) {
+            return inputStream;
+        }
+
+        return new FilterInputStream(inputStream) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+
+                if (b >= 0) {
+                    throttle.acquire(1);
+                }
+
+                return b;
+            }
+
+            @Override
+            public int read(@NotNull byte[] bytes, int offset, int length) throws IOException {
+                int count = super.read(bytes, offset, length);
+
+                if (count > 0) {
+                    throttle.acquire(count);
+                }
+
+                return count;
+            }
+        };
+    }
+
+    @NotNull
+    static OutputStream wrap(@NotNull OutputStream outputStream, @Nullable final BandwidthThrottle throttle) {
+        if (throttle == null) {
+            return outputStream;
+        }
+
+        return new FilterOutputStream(outputStream) {
+            @Override
+            public void write(int b) throws IOException {
+                throttle.acquire(1);
+                out.write(b);
+            }
+
+            @Override
+            public void write(@NotNull byte[] bytes, int offset, int length) throws IOException {
+                throttle.acquire(length);
+                out.write(bytes, offset, length);
+            }
+        };
+    }
+}
@@ -0,0 +1,192 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.microsoft.azure.storage.ResultContinuation;
+import com.microsoft.azure.storage.ResultSegment;
+import com.microsoft.azure.storage.blob.BlobListingDetails;
+import com.microsoft.azure.storage.blob.CloudBlob;
+import com.microsoft.azure.storage.blob.CloudBlobContainer;
+import com.microsoft.azure.storage.blob.ListBlobItem;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.tooling.msservices.helpers.NotNull;
+import com.microsoft.tooling.msservices.helpers.Nullable;
+import com.microsoft.tooling.msservices.model.storage.BlobDeleteProgress;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+
+class BlobBulkDeleter {
+    private static final int SEGMENT_SIZE = 5000;
+    private static final int DELETES_PER_LANE = 4;
+
+    private final CloudBlobContainer container;
+    private final int retryCount;
+    private final int maxPendingDeletes;
+    private final Semaphore deleteSlots;
+    private final CallableSingleArg<Void, String> processDeleted;
+    private final CallableSingleArg<Void, BlobDeleteProgress> processProgress;
+    private final BlobDeleteProgress progress = new BlobDeleteProgress();
+    private Exception firstFailure;
+    private Exception abortCause;
+
+    BlobBulkDeleter(@NotNull CloudBlobContainer container,
+                    @NotNull BlobTransferOptions options,
+                    @Nullable CallableSingleArg<Void, String> processDeleted,
+                    @Nullable CallableSingleArg<Void, BlobDeleteProgress> processProgress) {
+        this.container = container;
+        this.retryCount = options.getRetryCount();
+        // a delete is a single small request, so more of them can be in flight than block transfers
+        this.maxPendingDeletes = Math.max(1, options.getParallelism() * DELETES_PER_LANE);
+        this.deleteSlots = new Semaphore(maxPendingDeletes);
+        this.processDeleted = processDeleted;
+        this.processProgress = processProgress;
+    }
+
+    @NotNull
+    BlobDeleteProgress delete(@NotNull List<CloudBlob> blobs, @NotNull List<String> prefixes)
+            throws Exception {
+        try {
+            for (CloudBlob blob : blobs) {
+                if (!submit(blob)) {
+                    break;
+                }
+            }
+
+            for (String prefix : prefixes) {
+                if (!deletePrefix(prefix)) {
+                    break;
+                }
+            }
+
+            progress.setListingComplete(true);
+        } finally {
+            // wait for the deletes still in flight
+            deleteSlots.acquireUninterruptibly(maxPendingDeletes);
+            deleteSlots.release(maxPendingDeletes);
+        }
+
+        synchronized (this) {
+            if (abortCause != null) {
+                throw abortCause;
+            }
+
+            if (firstFailure != null) {
+                throw new IOException(String.format("%s of %s blob deletions failed",
+                        progress.getFailedBlobs(), progress.getQueuedBlobs()), firstFailure);
+            }
+        }
+
+        return progress.copy();
+    }
+
+    private boolean deletePrefix(@NotNull String prefix) throws Exception {
+        ResultContinuation resultContinuation = null;
+        ResultSegment<ListBlobItem> segment;
+
+        do {
+            segment = container.listBlobsSegmented(prefix, true, EnumSet.noneOf(BlobListingDetails.class),
+                    SEGMENT_SIZE, resultContinuation, null, null);
+
+            for (ListBlobItem item : segment.getResults()) {
+                if (item instanceof CloudBlob && !submit((CloudBlob) item)) {
+                    return false;
+                }
+            }
+
+            resultContinuation = segment.getContinuationToken();
+        } while (segment.getHasMoreResults());
+
+        return true;
+    }
+
+    private boolean submit(@NotNull final CloudBlob blob) throws InterruptedException {
+        deleteSlots.acquire();
+
+        synchronized (this) {
+            if (abortCause != null) {
+                deleteSlots.release();
+                return false;
+            }
+        }
+
+        progress.addQueued();
+
+        BlobTransferHelper.getTransferExecutor().submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                try {
+                    deleteBlob(blob);
+                } finally {
+                    deleteSlots.release();
+                }
+
+                return null;
+            }
+        });
+
+        return true;
+    }
+
+    private void deleteBlob(@NotNull final CloudBlob blob) {
+        boolean failed = false;
+
+        try {
+            BlobTransferHelper.executeWithRetry(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    return blob.deleteIfExists();
+                }
+            }, retryCount);
+        } catch (Exception e) {
+            failed = true;
+
+            synchronized (this) {
+                if (firstFailure == null) {
+                    firstFailure = e;
+                }
+            }
+        }
+
+        progress.completeBlob(failed);
+
+        try {
+            if (!failed && processDeleted != null) {
+                processDeleted.call(blob.getName());
+            }
+
+            if (processProgress != null) {
+                processProgress.call(progress.copy());
+            }
+        } catch (Exception e) {
+            // the caller asked to stop; the listing ends at the next blob
+            synchronized (this) {
+                if (abortCause == null) {
+                    abortCause = e;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.microsoft.tooling.msservices.helpers.NotNull;
+import com.microsoft.tooling.msservices.helpers.Nullable;
+
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class BlobCompressionPolicy {
+    public static final String GZIP_ENCODING = "gzip";
+    public static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+    public static final long DEFAULT_MINIMUM_SIZE = 1024;
+    public static final List<String> DEFAULT_CONTENT_TYPES = Arrays.asList("text/*", "application/json",
+            "application/javascript", "application/xml", "image/svg+xml");
+
+    private static final Map<String, String> CONTENT_TYPES_BY_EXTENSION = new HashMap<String, String>();
+
+    static {
+        CONTENT_TYPES_BY_EXTENSION.put("css", "text/css");
+        CONTENT_TYPES_BY_EXTENSION.put("csv", "text/csv");
+        CONTENT_TYPES_BY_EXTENSION.put("js", "application/javascript");
+        CONTENT_TYPES_BY_EXTENSION.put("json", "application/json");
+        CONTENT_TYPES_BY_EXTENSION.put("log", "text/plain");
+        CONTENT_TYPES_BY_EXTENSION.put("map", "application/json");
+        CONTENT_TYPES_BY_EXTENSION.put("md", "text/markdown");
+        CONTENT_TYPES_BY_EXTENSION.put("svg", "image/svg+xml");
+        CONTENT_TYPES_BY_EXTENSION.put("xml", "application/xml");
+    }
+
+    private boolean compressUploads;
+    private boolean decompressDownloads = true;
+    private List<String> contentTypes = new ArrayList<String>(DEFAULT_CONTENT_TYPES);
+    private long minimumSize = DEFAULT_MINIMUM_SIZE;
+
+    public boolean isCompressUploads() {
+        return compressUploads;
+    }
+
+    public void setCompressUploads(boolean compressUploads) {
+        this.compressUploads = compressUploads;
+    }
+
+    public boolean isDecompressDownloads() {
+        return decompressDownloads;
+    }
+
+    public void setDecompressDownloads(boolean decompressDownloads) {
+        this.decompressDownloads = decompressDownloads;
+    }
+
+    @NotNull
+    public List<String> getContentTypes() {
+        return new ArrayList<String>(contentTypes);
+    }
+
+    public void setContentTypes(@NotNull List<String> contentTypes) {
+        this.contentTypes = new ArrayList<String>(contentTypes);
+    }
+
+    public long getMinimumSize() {
+        return minimumSize;
+    }
+
+    public void setMinimumSize(long minimumSize) {
+        this.minimumSize = Math.max(0, minimumSize);
+    }
+
+    public boolean shouldCompress(@NotNull String contentType, long length) {
+        if (!compressUploads || length < minimumSize) {
+            return false;
+        }
+
+        String type = contentType.toLowerCase(Locale.ENGLISH);
+
+        for (String pattern : contentTypes) {
+            pattern = pattern.trim().toLowerCase(Locale.ENGLISH);
+
+            if (pattern.endsWith("/*") ? type.startsWith(pattern.substring(0, pattern.length() - 1)) :
+                    type.equals(pattern)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public boolean shouldDecompress(@Nullable String contentEncoding) {
+        return decompressDownloads && GZIP_ENCODING.equalsIgnoreCase(contentEncoding);
+    }
+
+    @NotNull
+    public static String getContentType(@NotNull String fileName) {
+        int index = fileName.lastIndexOf('.');
+
+        if (index >= 0) {
+            String contentType = CONTENT_TYPES_BY_EXTENSION.get(fileName.substring(index + 1).toLowerCase(Locale.ENGLISH));
+
+            if (contentType != null) {
+                return contentType;
+            }
+        }
+
+        String contentType = URLConnection.guessContentTypeFromName(fileName);
+
+        return contentType != null ? contentType : DEFAULT_CONTENT_TYPE;
+    }
+}
@@ -0,0 +1,277 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.microsoft.azure.storage.ResultContinuation;
+import com.microsoft.azure.storage.ResultSegment;
+import com.microsoft.azure.storage.blob.BlobListingDetails;
+import com.microsoft.azure.storage.blob.BlobType;
+import com.microsoft.azure.storage.blob.CloudBlob;
+import com.microsoft.azure.storage.blob.CloudBlobContainer;
+import com.microsoft.azure.storage.blob.CopyState;
+import com.microsoft.azure.storage.blob.CopyStatus;
+import com.microsoft.azure.storage.blob.ListBlobItem;
+import com.microsoft.azure.storage.blob.SharedAccessBlobPermissions;
+import com.microsoft.azure.storage.blob.SharedAccessBlobPolicy;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.tooling.msservices.helpers.NotNull;
+import com.microsoft.tooling.msservices.helpers.Nullable;
+import com.microsoft.tooling.msservices.model.storage.BlobCopyProgress;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+class BlobCopier {
+    static final int DEFAULT_MAX_PENDING_COPIES = 32;
+
+    private static final int SEGMENT_SIZE = 5000;
+    private static final long POLL_INTERVAL_MILLIS = 2000;
+    private static final long SOURCE_ACCESS_MILLIS = TimeUnit.HOURS.toMillis(4);
+
+    private static class PendingCopy {
+        final CloudBlob target;
+        long copiedBytes;
+
+        PendingCopy(@NotNull CloudBlob target) {
+            this.target = target;
+        }
+    }
+
+    private final CloudBlobContainer sourceContainer;
+    private final CloudBlobContainer targetContainer;
+    private final boolean crossAccount;
+    private final CallableSingleArg<Void, BlobCopyProgress> processProgress;
+    private final BlobCopyProgress progress = new BlobCopyProgress();
+    private final List<PendingCopy> pendingCopies = new ArrayList<PendingCopy>();
+    private final Semaphore copySlots;
+    private final int retryCount;
+    private Exception firstFailure;
+
+    BlobCopier(@NotNull CloudBlobContainer sourceContainer,
+               @NotNull CloudBlobContainer targetContainer,
+               boolean crossAccount,
+               int maxPendingCopies,
+               int retryCount,
+               @Nullable CallableSingleArg<Void, BlobCopyProgress> processProgress) {
+        this.sourceContainer = sourceContainer;
+        this.targetContainer = targetContainer;
+        this.crossAccount = crossAccount;
+        this.copySlots = new Semaphore(Math.max(1, maxPendingCopies));
+        this.retryCount = retryCount;
+        this.processProgress = processProgress;
+    }
+
+    @NotNull
+    BlobCopyProgress copy(@NotNull String prefix) throws Exception {
+        // the service does the copying; the client only starts copies and watches them, so one poller covers all
+        Future<Void> poller = BlobTransferHelper.getTransferExecutor().submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                try {
+                    poll();
+                    return null;
+                } finally {
+                    // unblock the lister if the poller stops early
+                    copySlots.release(Integer.MAX_VALUE / 2);
+                }
+            }
+        });
+
+        try {
+            ResultContinuation resultContinuation = null;
+            ResultSegment<ListBlobItem> segment;
+
+            do {
+                segment = sourceContainer.listBlobsSegmented(prefix, true, EnumSet.noneOf(BlobListingDetails.class),
+                        SEGMENT_SIZE, resultContinuation, null, null);
+
+                for (ListBlobItem item : segment.getResults()) {
+                    if (item instanceof CloudBlob) {
+                        copySlots.acquire();
+
+                        if (poller.isDone()) {
+                            break;
+                        }
+
+                        startCopy((CloudBlob) item);
+                    }
+                }
+
+                resultContinuation = segment.getContinuationToken();
+            } while (segment.getHasMoreResults() && !poller.isDone());
+
+            progress.setListingComplete(true);
+
+            try {
+                poller.get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+        } finally {
+            poller.cancel(true);
+        }
+
+        synchronized (this) {
+            if (firstFailure != null) {
+                throw new IOException(String.format("%s of %s blob copies failed",
+                        progress.getFailedBlobs(), progress.getStartedBlobs()), firstFailure);
+            }
+        }
+
+        return progress.copy();
+    }
+
+    private void startCopy(@NotNull final CloudBlob source) throws Exception {
+        String name = source.getName();
+        final CloudBlob target = source.getProperties().getBlobType() == BlobType.PAGE_BLOB ?
+                targetContainer.getPageBlobReference(name) : targetContainer.getBlockBlobReference(name);
+
+        progress.addStarted(source.getProperties().getLength());
+
+        try {
+            BlobTransferHelper.executeWithRetry(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    target.startCopy(crossAccount ? getSourceUri(source) : source.getUri());
+
+                    return null;
+                }
+            }, retryCount);
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            fail(e);
+            copySlots.release();
+            reportProgress();
+            return;
+        }
+
+        synchronized (pendingCopies) {
+            pendingCopies.add(new PendingCopy(target));
+        }
+
+        reportProgress();
+    }
+
+    @NotNull
+    private static URI getSourceUri(@NotNull CloudBlob source) throws Exception {
+        // the target account cannot read a private source without a signature; it only has to outlive the copy
+        SharedAccessBlobPolicy policy = new SharedAccessBlobPolicy();
+        policy.setPermissions(EnumSet.of(SharedAccessBlobPermissions.READ));
+        policy.setSharedAccessExpiryTime(new Date(System.currentTimeMillis() + SOURCE_ACCESS_MILLIS));
+
+        return new URI(source.getUri().toString() + "?" + source.generateSharedAccessSignature(policy, null));
+    }
+
+    private void poll() throws Exception {
+        while (true) {
+            List<PendingCopy> copies;
+
+            synchronized (pendingCopies) {
+                copies = new ArrayList<PendingCopy>(pendingCopies);
+            }
+
+            if (copies.isEmpty() && progress.isListingComplete()) {
+                return;
+            }
+
+            for (PendingCopy pendingCopy : copies) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+
+                CopyState copyState;
+
+                try {
+                    pendingCopy.target.downloadAttributes();
+                    copyState = pendingCopy.target.getCopyState();
+                } catch (Exception e) {
+                    complete(pendingCopy, e);
+                    continue;
+                }
+
+                CopyStatus status = copyState != null ? copyState.getStatus() : CopyStatus.SUCCESS;
+                Long bytesCopied = copyState != null ? copyState.getBytesCopied() : null;
+
+                if (bytesCopied != null) {
+                    progress.addCopiedBytes(bytesCopied - pendingCopy.copiedBytes);
+                    pendingCopy.copiedBytes = bytesCopied;
+                }
+
+                if (status == CopyStatus.SUCCESS) {
+                    complete(pendingCopy, null);
+                } else if (status != CopyStatus.PENDING) {
+                    complete(pendingCopy, new IOException(String.format("The copy of %s ended as %s: %s",
+                            pendingCopy.target.getName(), status, copyState.getStatusDescription())));
+                }
+            }
+
+            reportProgress();
+
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        }
+    }
+
+    private void complete(@NotNull PendingCopy pendingCopy, @Nullable Exception failure) {
+        synchronized (pendingCopies) {
+            for (Iterator<PendingCopy> iterator = pendingCopies.iterator(); iterator.hasNext(); ) {
+                if (iterator.next() == pendingCopy) {
+                    iterator.remove();
+                }
+            }
+        }
+
+        if (failure != null) {
+            fail(failure);
+        } else {
+            progress.completeBlob(false);
+        }
+
+        copySlots.release();
+    }
+
+    private void fail(@NotNull Exception failure) {
+        progress.completeBlob(true);
+
+        synchronized (this) {
+            if (firstFailure == null) {
+                firstFailure = failure;
+            }
+        }
+    }
+
+    private void reportProgress() throws Exception {
+        if (processProgress != null) {
+            processProgress.call(progress.copy());
+        }
+    }
+}
@@ -0,0 +1,401 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hashing;
+import com.google.common.io.BaseEncoding;
+import com.google.common.io.CountingInputStream;
+import com.google.common.io.Files;
+import com.microsoft.tooling.msservices.helpers.NotNull;
+import com.microsoft.tooling.msservices.helpers.Nullable;
+import com.microsoft.tooling.msservices.model.storage.BlobDirectory;
+import com.microsoft.tooling.msservices.model.storage.BlobFile;
+import com.microsoft.tooling.msservices.model.storage.BlobItem;
+import com.microsoft.tooling.msservices.model.storage.BlobItemPage;
+
+import java.io.*;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+class BlobIndexCache {
+    private static final int MAGIC = 0x41424958;
+    private static final int VERSION = 1;
+    private static final int DIGEST_OFFSET = 8;
+    private static final int DIGEST_LENGTH = 16;
+    private static final String TOKEN_PREFIX = "index:";
+    private static final String INDEX_EXTENSION = ".idx";
+    private static final String CONTAINER_ETAG_FILE = "container.etag";
+    private static final byte DIRECTORY_RECORD = 0;
+    private static final byte FILE_RECORD = 1;
+
+    class IndexWriter {
+        private final File indexFile;
+        private final File tempFile;
+        private final String containerETag;
+        private final long generation;
+        private final DigestOutputStream digestStream;
+        private final DataOutputStream output;
+        private boolean closed;
+
+        private IndexWriter(@NotNull File indexFile, @NotNull String containerETag) throws IOException {
+            this.indexFile = indexFile;
+            this.containerETag = containerETag;
+            this.generation = BlobIndexCache.this.generation;
+
+            tempFile = File.createTempFile("blobs", ".tmp", indexFile.getParentFile());
+
+            try {
+                digestStream = new DigestOutputStream(
+                        new BufferedOutputStream(new FileOutputStream(tempFile), 65536), MessageDigest.getInstance("MD5"));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IOException(e.getMessage());
+            }
+
+            output = new DataOutputStream(digestStream);
+
+            digestStream.on(false);
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.write(new byte[DIGEST_LENGTH]);
+            output.writeUTF(containerETag);
+            digestStream.on(true);
+        }
+
+        void write(@NotNull BlobItem blobItem) throws IOException {
+            if (blobItem instanceof BlobDirectory) {
+                output.writeByte(DIRECTORY_RECORD);
+                output.writeUTF(blobItem.getName());
+                output.writeUTF(blobItem.getPath());
+                output.writeUTF(blobItem.getUri());
+            } else if (blobItem instanceof BlobFile) {
+                BlobFile blobFile = (BlobFile) blobItem;
+
+                output.writeByte(FILE_RECORD);
+                output.writeUTF(blobFile.getName());
+                output.writeUTF(blobFile.getPath());
+                output.writeUTF(blobFile.getUri());
+                output.writeUTF(blobFile.getType());
+                output.writeUTF(blobFile.getCacheControlHeader());
+                output.writeUTF(blobFile.getContentEncoding());
+                output.writeUTF(blobFile.getContentLanguage());
+                output.writeUTF(blobFile.getContentType());
+                output.writeUTF(blobFile.getContentMD5Header());
+                output.writeUTF(blobFile.getETag());
+                output.writeLong(blobFile.getLastModified().getTimeInMillis());
+                output.writeLong(blobFile.getSize());
+            }
+        }
+
+        boolean commit() throws IOException {
+            closed = true;
+            output.close();
+
+            byte[] digest = digestStream.getMessageDigest().digest();
+
+            RandomAccessFile randomAccessFile = new RandomAccessFile(tempFile, "rw");
+
+            try {
+                randomAccessFile.seek(DIGEST_OFFSET);
+                randomAccessFile.write(digest);
+            } finally {
+                randomAccessFile.close();
+            }
+
+            boolean changed;
+
+            // readers must never see the index between the delete and the move
+            synchronized (BlobIndexCache.this) {
+                // a listing that was running while the container changed may already be out of date
+                if (generation != BlobIndexCache.this.generation) {
+                    close();
+                    return false;
+                }
+
+                Header existingHeader = readHeader(indexFile);
+                changed = existingHeader == null || !Arrays.equals(existingHeader.digest, digest);
+
+                if (changed || !containerETag.equals(existingHeader.containerETag)) {
+                    if (indexFile.exists() && !indexFile.delete()) {
+                        throw new IOException("Unable to replace the Blob index " + indexFile.getPath());
+                    }
+
+                    Files.move(tempFile, indexFile);
+                } else if (!indexFile.setLastModified(System.currentTimeMillis())) {
+                    throw new IOException("Unable to update the Blob index " + indexFile.getPath());
+                }
+            }
+
+            if (!changed) {
+                close();
+            }
+
+            return changed;
+        }
+
+        void close() {
+            if (!closed) {
+                closed = true;
+
+                try {
+                    output.close();
+                } catch (IOException ignored) {
+                }
+            }
+
+            if (tempFile.exists() && !tempFile.delete()) {
+                tempFile.deleteOnExit();
+            }
+        }
+    }
+
+    private static class Header {
+        byte[] digest;
+        String containerETag;
+        long recordsOffset;
+    }
+
+    private final File rootDirectory;
+    private long generation;
+
+    BlobIndexCache(@NotNull File rootDirectory) {
+        this.rootDirectory = rootDirectory;
+    }
+
+    @Nullable
+    synchronized BlobItemPage readPage(@NotNull String accountName,
+                                       @NotNull String containerName,
+                                       @NotNull String prefix,
+                                       int maxResults,
+                                       @Nullable String continuationToken)
+            throws IOException {
+        File indexFile = getIndexFile(accountName, containerName, prefix);
+        Header header = readHeader(indexFile);
+
+        if (header == null) {
+            return null;
+        }
+
+        String tokenPrefix = TOKEN_PREFIX + BaseEncoding.base16().encode(header.digest) + ":";
+        long offset = header.recordsOffset;
+
+        if (continuationToken != null) {
+            if (!continuationToken.startsWith(tokenPrefix)) {
+                return null;
+            }
+
+            offset = Long.parseLong(continuationToken.substring(tokenPrefix.length()));
+        }
+
+        FileInputStream fileInputStream = new FileInputStream(indexFile);
+
+        try {
+            if (fileInputStream.skip(offset) != offset) {
+                return null;
+            }
+
+            CountingInputStream countingStream = new CountingInputStream(new BufferedInputStream(fileInputStream, 65536));
+            DataInputStream input = new DataInputStream(countingStream);
+            List<BlobItem> blobItems = new ArrayList<BlobItem>();
+
+            while (blobItems.size() < maxResults) {
+                int recordType = input.read();
+
+                if (recordType < 0) {
+                    return new BlobItemPage(blobItems, null);
+                }
+
+                blobItems.add(readRecord(input, (byte) recordType, containerName));
+            }
+
+            String nextToken = input.read() < 0 ? null : tokenPrefix + (offset + countingStream.getCount() - 1);
+
+            return new BlobItemPage(blobItems, nextToken);
+        } finally {
+            fileInputStream.close();
+        }
+    }
+
+    @Nullable
+    synchronized BlobFile findBlobFile(@NotNull String accountName,
+                                       @NotNull String containerName,
+                                       @NotNull String blobPath,
+                                       @NotNull String delimiter)
+            throws IOException {
+        String prefix = blobPath.substring(0, blobPath.lastIndexOf(delimiter) + 1);
+        File indexFile = getIndexFile(accountName, containerName, prefix);
+        Header header = readHeader(indexFile);
+
+        if (header == null) {
+            return null;
+        }
+
+        FileInputStream fileInputStream = new FileInputStream(indexFile);
+
+        try {
+            if (fileInputStream.skip(header.recordsOffset) != header.recordsOffset) {
+                return null;
+            }
+
+            DataInputStream input = new DataInputStream(new BufferedInputStream(fileInputStream, 65536));
+            int recordType;
+
+            while ((recordType = input.read()) >= 0) {
+                BlobItem blobItem = readRecord(input, (byte) recordType, containerName);
+
+                if (blobItem instanceof BlobFile && blobItem.getPath().equals(blobPath)) {
+                    return (BlobFile) blobItem;
+                }
+            }
+
+            return null;
+        } finally {
+            fileInputStream.close();
+        }
+    }
+
+    synchronized boolean isFresh(@NotNull String accountName,
+                                 @NotNull String containerName,
+                                 @NotNull String prefix,
+                                 long maxAgeMillis) {
+        File indexFile = getIndexFile(accountName, containerName, prefix);
+
+        // the index file is rewritten or touched each time a listing confirms it
+        return readHeader(indexFile) != null && System.currentTimeMillis() - indexFile.lastModified() < maxAgeMillis;
+    }
+
+    @NotNull
+    synchronized IndexWriter openWriter(@NotNull String accountName,
+                                        @NotNull String containerName,
+                                        @NotNull String prefix,
+                                        @NotNull String containerETag)
+            throws IOException {
+        File containerDirectory = getContainerDirectory(accountName, containerName);
+
+        if (!containerDirectory.isDirectory() && !containerDirectory.mkdirs()) {
+            throw new IOException("Unable to create the Blob index directory " + containerDirectory.getPath());
+        }
+
+        File eTagFile = new File(containerDirectory, CONTAINER_ETAG_FILE);
+
+        if (!eTagFile.isFile() || !containerETag.equals(Files.toString(eTagFile, Charsets.UTF_8))) {
+            deleteIndexFiles(containerDirectory);
+
+            Files.write(containerETag, eTagFile, Charsets.UTF_8);
+        }
+
+        return new IndexWriter(getIndexFile(accountName, containerName, prefix), containerETag);
+    }
+
+    synchronized void invalidate(@NotNull String accountName, @NotNull String containerName) {
+        // a changed blob can show up in the listing of every prefix above it, so the whole container is dropped
+        generation++;
+        deleteIndexFiles(getContainerDirectory(accountName, containerName));
+    }
+
+    private static void deleteIndexFiles(@NotNull File containerDirectory) {
+        File[] indexFiles = containerDirectory.listFiles();
+
+        if (indexFiles != null) {
+            for (File indexFile : indexFiles) {
+                if (indexFile.getName().endsWith(INDEX_EXTENSION) && !indexFile.delete()) {
+                    indexFile.deleteOnExit();
+                }
+            }
+        }
+    }
+
+    @NotNull
+    private File getContainerDirectory(@NotNull String accountName, @NotNull String containerName) {
+        return new File(new File(rootDirectory, accountName), containerName);
+    }
+
+    @NotNull
+    private File getIndexFile(@NotNull String accountName, @NotNull String containerName, @NotNull String prefix) {
+        return new File(getContainerDirectory(accountName, containerName),
+                Hashing.md5().hashString(prefix, Charsets.UTF_8).toString() + INDEX_EXTENSION);
+    }
+
+    @Nullable
+    private static Header readHeader(@NotNull File indexFile) {
+        if (!indexFile.isFile()) {
+            return null;
+        }
+
+        try {
+            DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+
+            try {
+                if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                    return null;
+                }
+
+                Header header = new Header();
+                header.digest = new byte[DIGEST_LENGTH];
+                input.readFully(header.digest);
+                header.containerETag = input.readUTF();
+
+                ByteArrayOutputStream eTagBytes = new ByteArrayOutputStream();
+                new DataOutputStream(eTagBytes).writeUTF(header.containerETag);
+                header.recordsOffset = DIGEST_OFFSET + DIGEST_LENGTH + eTagBytes.size();
+
+                return header;
+            } finally {
+                input.close();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @NotNull
+    private static BlobItem readRecord(@NotNull DataInputStream input, byte recordType, @NotNull String containerName)
+            throws IOException {
+        String name = input.readUTF();
+        String path = input.readUTF();
+        String uri = input.readUTF();
+
+        if (recordType == DIRECTORY_RECORD) {
+            return new BlobDirectory(name, uri, containerName, path);
+        }
+
+        String type = input.readUTF();
+        String cacheControlHeader = input.readUTF();
+        String contentEncoding = input.readUTF();
+        String contentLanguage = input.readUTF();
+        String contentType = input.readUTF();
+        String contentMD5Header = input.readUTF();
+        String eTag = input.readUTF();
+        Calendar lastModified = new GregorianCalendar();
+        lastModified.setTimeInMillis(input.readLong());
+        long size = input.readLong();
+
+        return new BlobFile(name, uri, containerName, path, type, cacheControlHeader, contentEncoding,
+                contentLanguage, contentType, contentMD5Header, eTag, lastModified, size);
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.microsoft.tooling.msservices.helpers.NotNull;
+import com.microsoft.tooling.msservices.helpers.azure.AzureCmdException;
+import com.microsoft.tooling.msservices.model.storage.BlobFile;
+import com.microsoft.tooling.msservices.model.storage.ClientStorageAccount;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class BlobRangeReader {
+    public static final int PAGE_SIZE = 64 * 1024;
+    public static final int DEFAULT_MAX_CACHED_PAGES = 256;
+
+    private final ClientStorageAccount storageAccount;
+    private final BlobFile blobFile;
+    private final String eTag;
+    private final Map<Long, byte[]> pages;
+
+    public BlobRangeReader(@NotNull ClientStorageAccount storageAccount, @NotNull BlobFile blobFile) {
+        this(storageAccount, blobFile, DEFAULT_MAX_CACHED_PAGES);
+    }
+
+    public BlobRangeReader(@NotNull ClientStorageAccount storageAccount, @NotNull BlobFile blobFile,
+                           final int maxCachedPages) {
+        this.storageAccount = storageAccount;
+        this.blobFile = blobFile;
+        // every page must come from the same version of the blob
+        this.eTag = blobFile.getETag();
+        this.pages = new LinkedHashMap<Long, byte[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+                return size() > maxCachedPages;
+            }
+        };
+    }
+
+    public long getLength() {
+        return blobFile.getSize();
+    }
+
+    @NotNull
+    public byte[] read(long offset, int length)
+            throws AzureCmdException {
+        offset = Math.max(0, Math.min(offset, getLength()));
+        length = (int) Math.min(length, getLength() - offset);
+
+        byte[] result = new byte[length];
+        int position = 0;
+
+        while (position < length) {
+            long pageIndex = (offset + position) / PAGE_SIZE;
+            byte[] page = getPage(pageIndex);
+            int pageOffset = (int) (offset + position - pageIndex * PAGE_SIZE);
+            int count = Math.min(length - position, page.length - pageOffset);
+
+            if (count <= 0) {
+                break;
+            }
+
+            System.arraycopy(page, pageOffset, result, position, count);
+            position += count;
+        }
+
+        return result;
+    }
+
+    @NotNull
+    private byte[] getPage(long pageIndex)
+            throws AzureCmdException {
+        byte[] page;
+
+        synchronized (pages) {
+            page = pages.get(pageIndex);
+        }
+
+        if (page == null) {
+            long pageOffset = pageIndex * PAGE_SIZE;
+
+            // fetched outside the lock so a slow page does not hold up reads of cached ones
+            page = StorageClientSDKManagerImpl.getManager().downloadBlobRange(storageAccount, blobFile, eTag, pageOffset,
+                    (int) Math.min(PAGE_SIZE, getLength() - pageOffset));
+
+            synchronized (pages) {
+                pages.put(pageIndex, page);
+            }
+        }
+
+        return page;
+    }
+}
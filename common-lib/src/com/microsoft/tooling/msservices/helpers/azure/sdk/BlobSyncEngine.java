@@ -0,0 +1,478 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.google.common.base.Strings;
+import com.microsoft.azure.storage.ResultContinuation;
+import com.microsoft.azure.storage.ResultSegment;
+import com.microsoft.azure.storage.blob.BlobListingDetails;
+import com.microsoft.azure.storage.blob.BlobProperties;
+import com.microsoft.azure.storage.blob.CloudBlob;
+import com.microsoft.azure.storage.blob.CloudBlobContainer;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
+import com.microsoft.azure.storage.blob.ListBlobItem;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.tooling.msservices.helpers.NotNull;
+import com.microsoft.tooling.msservices.helpers.Nullable;
+import com.microsoft.tooling.msservices.model.storage.BlobSyncSummary;
+import com.microsoft.tooling.msservices.model.storage.BlobSyncSummary.Action;
+import com.microsoft.tooling.msservices.model.storage.BlobSyncSummary.Mode;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+class BlobSyncEngine {
+    private static final int SEGMENT_SIZE = 5000;
+    private static final long MODIFIED_TIME_TOLERANCE_MILLIS = 1000;
+
+    private static class Entry {
+        final String path;
+        final long length;
+        final long lastModified;
+        final File file;
+        final CloudBlob blob;
+
+        Entry(@NotNull String path, long length, long lastModified, @Nullable File file, @Nullable CloudBlob blob) {
+            this.path = path;
+            this.length = length;
+            this.lastModified = lastModified;
+            this.file = file;
+            this.blob = blob;
+        }
+    }
+
+    private static class PlannedAction {
+        final Action action;
+        final Entry local;
+        final Entry remote;
+
+        PlannedAction(@NotNull Action action, @Nullable Entry local, @Nullable Entry remote) {
+            this.action = action;
+            this.local = local;
+            this.remote = remote;
+        }
+    }
+
+    private final CloudBlobContainer container;
+    private final File localDirectory;
+    private final String prefix;
+    private final String delimiter;
+    private final Mode mode;
+    private final BlobTransferOptions options;
+    private final CallableSingleArg<Void, BlobSyncSummary> processProgress;
+    private final BlobSyncSummary summary = new BlobSyncSummary();
+    private final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+    private Semaphore pendingActions;
+    private BandwidthThrottle throttle;
+    private Exception firstFailure;
+
+    BlobSyncEngine(@NotNull CloudBlobContainer container,
+                   @NotNull File localDirectory,
+                   @NotNull String prefix,
+                   @NotNull String delimiter,
+                   @NotNull Mode mode,
+                   @NotNull BlobTransferOptions options,
+                   @Nullable CallableSingleArg<Void, BlobSyncSummary> processProgress) {
+        this.container = container;
+        this.localDirectory = localDirectory;
+        this.prefix = prefix.isEmpty() || prefix.endsWith(delimiter) ? prefix : prefix + delimiter;
+        this.delimiter = delimiter;
+        this.mode = mode;
+        this.options = options;
+        this.processProgress = processProgress;
+    }
+
+    void setThrottle(@Nullable BandwidthThrottle throttle) {
+        this.throttle = throttle;
+    }
+
+    @NotNull
+    BlobSyncSummary sync(boolean dryRun, @Nullable BlobSyncSummary expectedPlan) throws Exception {
+        pendingActions = new Semaphore(options.getParallelism());
+
+        // a confirmed plan is checked before anything runs, so its actions wait here until the walk is done
+        List<PlannedAction> plannedActions = !dryRun && expectedPlan != null ? new ArrayList<PlannedAction>() : null;
+
+        try {
+            // both sides arrive in name order, so one pass over them pairs every entry without holding either listing
+            EntrySource localEntries = new LocalEntrySource();
+            EntrySource remoteEntries = new RemoteEntrySource();
+            Entry local = localEntries.next();
+            Entry remote = remoteEntries.next();
+
+            while (local != null || remote != null) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+
+                int comparison = local == null ? 1 : remote == null ? -1 : local.path.compareTo(remote.path);
+
+                Action action = comparison < 0 ? (mode == Mode.DOWNLOAD ? Action.DELETE_LOCAL : Action.UPLOAD) :
+                        comparison > 0 ? (mode == Mode.UPLOAD ? Action.DELETE_REMOTE : Action.DOWNLOAD) :
+                                getChangedAction(local, remote);
+
+                if (action == null) {
+                    summary.addUnchanged();
+                } else {
+                    Entry localEntry = comparison <= 0 ? local : null;
+                    Entry remoteEntry = comparison >= 0 ? remote : null;
+
+                    summary.addPlanned(action, action == Action.UPLOAD ? localEntry.length :
+                            action == Action.DOWNLOAD ? remoteEntry.length : 0);
+
+                    if (plannedActions != null) {
+                        plannedActions.add(new PlannedAction(action, localEntry, remoteEntry));
+                    } else if (!dryRun) {
+                        submit(action, localEntry, remoteEntry);
+                    }
+                }
+
+                if (comparison <= 0) {
+                    local = localEntries.next();
+                }
+
+                if (comparison >= 0) {
+                    remote = remoteEntries.next();
+                }
+            }
+
+            summary.setPlanComplete(true);
+            reportProgress();
+
+            if (plannedActions != null) {
+                if (!summary.hasSamePlan(expectedPlan)) {
+                    throw new IOException("The folder or the container changed after the sync was reviewed; " +
+                            "compare them again before synchronizing");
+                }
+
+                for (PlannedAction plannedAction : plannedActions) {
+                    submit(plannedAction.action, plannedAction.local, plannedAction.remote);
+                }
+            }
+
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        } finally {
+            for (Future<Void> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        synchronized (this) {
+            if (firstFailure != null) {
+                throw new IOException(String.format("%s sync operations failed", summary.getFailedCount()),
+                        firstFailure);
+            }
+        }
+
+        return summary.copy();
+    }
+
+    @Nullable
+    private Action getChangedAction(@NotNull Entry local, @NotNull Entry remote) throws IOException {
+        long timeDifference = local.lastModified - remote.lastModified;
+
+        if (local.length == remote.length) {
+            if (Math.abs(timeDifference) < MODIFIED_TIME_TOLERANCE_MILLIS) {
+                return null;
+            }
+
+            BlobProperties properties = remote.blob.getProperties();
+            String contentMD5 = properties.getContentMD5();
+
+            // the stored hash of encoded content cannot be compared with the local bytes
+            if (!Strings.isNullOrEmpty(contentMD5) && Strings.isNullOrEmpty(properties.getContentEncoding())) {
+                if (contentMD5.equals(BlobTransferHelper.computeContentMD5(local.file))) {
+                    return null;
+                }
+            } else if (mode == Mode.UPLOAD ? timeDifference < 0 : mode == Mode.DOWNLOAD && timeDifference > 0) {
+                // without a hash, only a source newer than its copy counts as a change
+                return null;
+            }
+        }
+
+        switch (mode) {
+            case UPLOAD:
+                return Action.UPLOAD;
+            case DOWNLOAD:
+                return Action.DOWNLOAD;
+            default:
+                return timeDifference > 0 ? Action.UPLOAD : Action.DOWNLOAD;
+        }
+    }
+
+    private void submit(@NotNull final Action action, @Nullable final Entry local, @Nullable final Entry remote)
+            throws Exception {
+        pendingActions.acquire();
+        pruneCompleted();
+
+        try {
+            futures.add(BlobTransferHelper.getTransferExecutor().submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    try {
+                        execute(action, local, remote);
+                    } catch (InterruptedException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        summary.addFailed();
+
+                        synchronized (BlobSyncEngine.this) {
+                            if (firstFailure == null) {
+                                firstFailure = e;
+                            }
+                        }
+                    } finally {
+                        pendingActions.release();
+                    }
+
+                    reportProgress();
+
+                    return null;
+                }
+            }));
+        } catch (RuntimeException e) {
+            pendingActions.release();
+            throw e;
+        }
+    }
+
+    private void execute(@NotNull Action action, @Nullable Entry local, @Nullable Entry remote) throws Exception {
+        switch (action) {
+            case UPLOAD: {
+                CloudBlockBlob blob = container.getBlockBlobReference(prefix + local.path);
+                blob.getProperties().setContentType(BlobCompressionPolicy.getContentType(local.file.getName()));
+
+                ParallelBlockUploader uploader = new ParallelBlockUploader(blob, options, null);
+                uploader.setThrottle(throttle);
+
+                FileChannel channel = new RandomAccessFile(local.file, "r").getChannel();
+
+                try {
+                    uploader.upload(channel, BlockSizePolicy.MAX_BLOCK_SIZE);
+                } finally {
+                    channel.close();
+                }
+
+                summary.addCompleted(action, local.length);
+                break;
+            }
+            case DOWNLOAD: {
+                File file = local != null ? local.file : new File(localDirectory,
+                        remote.path.replace(delimiter, File.separator));
+                File parent = file.getParentFile();
+
+                if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+                    throw new IOException("Unable to create the directory " + parent.getPath());
+                }
+
+                RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+
+                try {
+                    randomAccessFile.setLength(remote.length);
+
+                    ParallelRangeDownloader downloader = new ParallelRangeDownloader(remote.blob,
+                            remote.blob.getProperties().getEtag(), options, null);
+                    downloader.setThrottle(throttle);
+                    downloader.download(randomAccessFile.getChannel(), remote.length);
+                } finally {
+                    randomAccessFile.close();
+                }
+
+                // matching times mark the pair as in sync on the next run without hashing it again
+                if (!file.setLastModified(remote.lastModified)) {
+                    throw new IOException("Unable to set the modification time of " + file.getPath());
+                }
+
+                summary.addCompleted(action, remote.length);
+                break;
+            }
+            case DELETE_REMOTE:
+                remote.blob.deleteIfExists();
+                summary.addCompleted(action, 0);
+                break;
+            default:
+                if (local.file.exists() && !local.file.delete()) {
+                    throw new IOException("Unable to delete " + local.file.getPath());
+                }
+
+                summary.addCompleted(action, 0);
+        }
+    }
+
+    private void pruneCompleted() throws Exception {
+        for (Iterator<Future<Void>> iterator = futures.iterator(); iterator.hasNext(); ) {
+            Future<Void> future = iterator.next();
+
+            if (future.isDone()) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+
+                iterator.remove();
+            }
+        }
+    }
+
+    private void reportProgress() throws Exception {
+        if (processProgress != null) {
+            processProgress.call(summary.copy());
+        }
+    }
+
+    private interface EntrySource {
+        @Nullable
+        Entry next() throws Exception;
+    }
+
+    private class LocalEntrySource implements EntrySource {
+        private final Deque<Iterator<File>> directories = new ArrayDeque<Iterator<File>>();
+        private final Deque<String> directoryPaths = new ArrayDeque<String>();
+
+        LocalEntrySource() throws IOException {
+            push(localDirectory, "");
+        }
+
+        @Nullable
+        @Override
+        public Entry next() throws IOException {
+            while (!directories.isEmpty()) {
+                Iterator<File> files = directories.peek();
+
+                if (!files.hasNext()) {
+                    directories.pop();
+                    directoryPaths.pop();
+                    continue;
+                }
+
+                File file = files.next();
+                String path = directoryPaths.peek() + file.getName();
+
+                if (file.isDirectory()) {
+                    push(file, path + delimiter);
+                } else if (file.isFile()) {
+                    return new Entry(path, file.length(), file.lastModified(), file, null);
+                }
+            }
+
+            return null;
+        }
+
+        private void push(@NotNull File directory, @NotNull String path) throws IOException {
+            File[] files = directory.listFiles();
+
+            if (files == null) {
+                if (directory == localDirectory && !directory.exists()) {
+                    files = new File[0];
+                } else {
+                    throw new IOException("Unable to list the directory " + directory.getPath());
+                }
+            }
+
+            // a directory sorts as its name plus the delimiter, which keeps the depth first walk in full path order
+            final String[] keys = new String[files.length];
+            Integer[] order = new Integer[files.length];
+
+            for (int i = 0; i < files.length; i++) {
+                keys[i] = files[i].isDirectory() ? files[i].getName() + delimiter : files[i].getName();
+                order[i] = i;
+            }
+
+            Arrays.sort(order, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer first, Integer second) {
+                    return keys[first].compareTo(keys[second]);
+                }
+            });
+
+            List<File> sortedFiles = new ArrayList<File>(files.length);
+
+            for (Integer index : order) {
+                sortedFiles.add(files[index]);
+            }
+
+            directories.push(sortedFiles.iterator());
+            directoryPaths.push(path);
+        }
+    }
+
+    private class RemoteEntrySource implements EntrySource {
+        private ResultContinuation resultContinuation;
+        private Iterator<ListBlobItem> items;
+        private boolean hasMoreResults = true;
+
+        @Nullable
+        @Override
+        public Entry next() throws Exception {
+            while (true) {
+                while (items != null && items.hasNext()) {
+                    ListBlobItem item = items.next();
+
+                    if (item instanceof CloudBlob) {
+                        CloudBlob blob = (CloudBlob) item;
+                        String path = blob.getName().substring(prefix.length());
+
+                        if (!path.isEmpty() && !path.endsWith(delimiter)) {
+                            BlobProperties properties = blob.getProperties();
+                            long lastModified = properties.getLastModified() != null ?
+                                    properties.getLastModified().getTime() : 0;
+
+                            return new Entry(path, properties.getLength(), lastModified, null, blob);
+                        }
+                    }
+                }
+
+                if (!hasMoreResults) {
+                    return null;
+                }
+
+                ResultSegment<ListBlobItem> segment = container.listBlobsSegmented(prefix, true,
+                        EnumSet.noneOf(BlobListingDetails.class), SEGMENT_SIZE, resultContinuation, null, null);
+
+                items = segment.getResults().iterator();
+                resultContinuation = segment.getContinuationToken();
+                hasMoreResults = segment.getHasMoreResults();
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.tooling.msservices.helpers.NotNull;
+import com.microsoft.tooling.msservices.helpers.Nullable;
+import com.microsoft.tooling.msservices.helpers.azure.AzureCmdException;
+import com.microsoft.tooling.msservices.model.storage.BlobFile;
+import com.microsoft.tooling.msservices.model.storage.BlobTailUpdate;
+import com.microsoft.tooling.msservices.model.storage.ClientStorageAccount;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BlobTailer {
+    public static final long MIN_POLL_INTERVAL_MILLIS = 1000;
+    public static final long MAX_POLL_INTERVAL_MILLIS = 30000;
+    public static final int MAX_FETCH_SIZE = 4 * 1024 * 1024;
+
+    private static final ExecutorService tailExecutor = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("azure-blob-tail-%d").build());
+
+    private final ClientStorageAccount storageAccount;
+    private final BlobFile blobFile;
+    private final long maxTailBytes;
+    private final CallableSingleArg<Void, BlobTailUpdate> processUpdate;
+    private volatile long position;
+    private long pollInterval = MIN_POLL_INTERVAL_MILLIS;
+    private Future<?> pollFuture;
+
+    public BlobTailer(@NotNull ClientStorageAccount storageAccount,
+                      @NotNull BlobFile blobFile,
+                      long maxTailBytes,
+                      @NotNull CallableSingleArg<Void, BlobTailUpdate> processUpdate) {
+        this.storageAccount = storageAccount;
+        this.blobFile = blobFile;
+        this.maxTailBytes = maxTailBytes;
+        this.processUpdate = processUpdate;
+        this.position = Math.max(0, blobFile.getSize() - maxTailBytes);
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public synchronized boolean isRunning() {
+        return pollFuture != null && !pollFuture.isDone();
+    }
+
+    public synchronized void start() {
+        if (isRunning()) {
+            return;
+        }
+
+        pollFuture = tailExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    // the listed length is the first baseline; later ones come from conditional polls
+                    fetch(blobFile.getSize(), false);
+
+                    while (!Thread.currentThread().isInterrupted()) {
+                        Thread.sleep(pollInterval);
+                        poll();
+                    }
+                } catch (InterruptedException ignored) {
+                } catch (UpdateRejectedException ignored) {
+                    // nothing is listening any more
+                } catch (Exception e) {
+                    try {
+                        report(position, new byte[0], false, true,
+                                e.getMessage() != null ? e.getMessage() : e.getClass().getName());
+                    } catch (UpdateRejectedException ignored) {
+                    }
+                }
+            }
+        });
+    }
+
+    public synchronized void stop() {
+        if (pollFuture != null) {
+            pollFuture.cancel(true);
+            pollFuture = null;
+        }
+    }
+
+    private void poll() throws Exception {
+        BlobFile changedBlobFile;
+
+        try {
+            changedBlobFile = StorageClientSDKManagerImpl.getManager().refreshBlobFile(storageAccount, blobFile);
+        } catch (AzureCmdException e) {
+            pollInterval = MAX_POLL_INTERVAL_MILLIS;
+            report(position, new byte[0], false, false, e.getMessage());
+            return;
+        }
+
+        // a failed fetch leaves bytes behind even when the blob itself has not changed again
+        if (changedBlobFile == null && position >= blobFile.getSize()) {
+            // nothing written since the last poll: back off
+            pollInterval = Math.min(MAX_POLL_INTERVAL_MILLIS, pollInterval + pollInterval / 2);
+            return;
+        }
+
+        long length = blobFile.getSize();
+
+        if (length == position) {
+            // only the properties changed
+            return;
+        }
+
+        // the writer is active: poll more often
+        pollInterval = Math.max(MIN_POLL_INTERVAL_MILLIS, pollInterval / 2);
+
+        fetch(length, length < position);
+    }
+
+    private void fetch(long length, boolean truncated) throws Exception {
+        boolean reset = truncated;
+
+        if (truncated || length - position > maxTailBytes) {
+            // a rewritten or fast-growing blob restarts the view at its last bytes
+            position = Math.max(0, length - maxTailBytes);
+            reset = true;
+        }
+
+        if (reset) {
+            report(position, new byte[0], true, false, null);
+        }
+
+        while (position < length) {
+            byte[] data;
+
+            // every append changes the ETag while the bytes already written stay put, so the new range is read
+            // unconditionally; a rewrite shows up as a length drop on a later poll
+            try {
+                data = StorageClientSDKManagerImpl.getManager().downloadBlobRange(storageAccount, blobFile, null, position,
+                        (int) Math.min(MAX_FETCH_SIZE, length - position));
+            } catch (AzureCmdException e) {
+                report(position, new byte[0], false, false, e.getMessage());
+                return;
+            }
+
+            if (data.length == 0) {
+                return;
+            }
+
+            report(position, data, false, false, null);
+            position += data.length;
+        }
+    }
+
+    private void report(long offset, @NotNull byte[] data, boolean reset, boolean stopped, @Nullable String errorMessage)
+            throws UpdateRejectedException {
+        try {
+            processUpdate.call(new BlobTailUpdate(offset, data, blobFile.getSize(), reset, stopped, pollInterval,
+                    errorMessage));
+        } catch (Exception e) {
+            throw new UpdateRejectedException(e);
+        }
+    }
+
+    private static class UpdateRejectedException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        UpdateRejectedException(@NotNull Throwable cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.google.common.base.Strings;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.microsoft.azure.storage.core.Base64;
+import com.microsoft.tooling.msservices.helpers.NotNull;
+import com.microsoft.tooling.msservices.helpers.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+final class BlobTransferHelper {
+    private static final long RETRY_BACKOFF_MILLIS = 1000;
+    private static final int DIGEST_BUFFER_SIZE = 1024 * 1024;
+
+    private static final ExecutorService transferExecutor = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("azure-blob-transfer-%d").build());
+
+    private BlobTransferHelper() {
+    }
+
+    @NotNull
+    static ExecutorService getTransferExecutor() {
+        return transferExecutor;
+    }
+
+    @NotNull
+    static MessageDigest createMD5Digest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not supported by this Java runtime", e);
+        }
+    }
+
+    @NotNull
+    static String computeContentMD5(@NotNull File content)
+            throws IOException {
+        MessageDigest digest = createMD5Digest();
+        FileChannel channel = new RandomAccessFile(content, "r").getChannel();
+
+        try {
+            // mapped windows would keep the file locked on Windows until they are garbage collected
+            ByteBuffer buffer = ByteBuffer.allocateDirect(DIGEST_BUFFER_SIZE);
+
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        } finally {
+            channel.close();
+        }
+
+        return Base64.encode(digest.digest());
+    }
+
+    static void verifyContentMD5(@Nullable String contentMD5, @NotNull MessageDigest digest)
+            throws IOException {
+        String computedMD5 = Base64.encode(digest.digest());
+
+        if (!Strings.isNullOrEmpty(contentMD5) && !contentMD5.equals(computedMD5)) {
+            throw new IOException(String.format("The downloaded content does not match its Content-MD5 " +
+                    "(expected %s, computed %s)", contentMD5, computedMD5));
+        }
+    }
+
+    static <T> T executeWithRetry(@NotNull Callable<T> operation, int retryCount)
+            throws Exception {
+        int attempt = 0;
+
+        while (true) {
+            try {
+                return operation.call();
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                if (attempt >= retryCount || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+
+                attempt++;
+                Thread.sleep(RETRY_BACKOFF_MILLIS * attempt);
+            }
+        }
+    }
+}
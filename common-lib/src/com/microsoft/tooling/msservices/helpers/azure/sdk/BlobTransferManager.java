@@ -0,0 +1,563 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.microsoft.tooling.msservices.components.AppSettingsNames;
+import com.microsoft.tooling.msservices.components.DefaultLoader;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.tooling.msservices.helpers.NotNull;
+import com.microsoft.tooling.msservices.helpers.Nullable;
+import com.microsoft.tooling.msservices.model.storage.BlobContainer;
+import com.microsoft.tooling.msservices.model.storage.BlobFile;
+import com.microsoft.tooling.msservices.model.storage.BlobSyncSummary;
+import com.microsoft.tooling.msservices.model.storage.BlobTransferJob;
+import com.microsoft.tooling.msservices.model.storage.ClientStorageAccount;
+import com.microsoft.tooling.msservices.model.storage.FolderTransferProgress;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BlobTransferManager {
+    public static final int DEFAULT_MAX_CONCURRENT_TRANSFERS = 4;
+    public static final int DEFAULT_MAX_CONCURRENT_TRANSFERS_PER_ACCOUNT = 2;
+
+    private static BlobTransferManager manager;
+
+    private final List<BlobTransferJob> jobs = new ArrayList<BlobTransferJob>();
+    private final Map<String, JobRunner> runningJobs = new HashMap<String, JobRunner>();
+    private final Map<String, CallableSingleArg<Void, BlobTransferJob>> finishedCallbacks =
+            new HashMap<String, CallableSingleArg<Void, BlobTransferJob>>();
+    private final List<CallableSingleArg<Void, BlobTransferJob>> listeners =
+            new CopyOnWriteArrayList<CallableSingleArg<Void, BlobTransferJob>>();
+    private final ExecutorService jobExecutor = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("azure-blob-transfer-job-%d").build());
+    private int maxConcurrentTransfers = DEFAULT_MAX_CONCURRENT_TRANSFERS;
+    private int maxConcurrentTransfersPerAccount = DEFAULT_MAX_CONCURRENT_TRANSFERS_PER_ACCOUNT;
+    private BlobCompressionPolicy compressionPolicy = new BlobCompressionPolicy();
+    private long nextSequence;
+    private boolean restored;
+
+    private BlobTransferManager() {
+    }
+
+    @NotNull
+    public static synchronized BlobTransferManager getManager() {
+        if (manager == null) {
+            manager = new BlobTransferManager();
+        }
+
+        return manager;
+    }
+
+    public synchronized void restore() {
+        if (restored) {
+            return;
+        }
+
+        restored = true;
+
+        Gson gson = new Gson();
+        String compression = DefaultLoader.getIdeHelper().getProperty(AppSettingsNames.BLOB_TRANSFER_COMPRESSION);
+
+        if (compression != null) {
+            try {
+                BlobCompressionPolicy policy = gson.fromJson(compression, BlobCompressionPolicy.class);
+
+                if (policy != null) {
+                    compressionPolicy = policy;
+                }
+            } catch (JsonParseException ignored) {
+            }
+        }
+
+        String[] values = DefaultLoader.getIdeHelper().getProperties(AppSettingsNames.BLOB_TRANSFER_QUEUE);
+
+        if (values != null) {
+
+            for (String json : values) {
+                try {
+                    BlobTransferJob job = gson.fromJson(json, BlobTransferJob.class);
+
+                    if (job.getState() == BlobTransferJob.State.RUNNING) {
+                        job.setState(BlobTransferJob.State.QUEUED);
+                    }
+
+                    nextSequence = Math.max(nextSequence, job.getSequence() + 1);
+                    jobs.add(job);
+                } catch (JsonParseException ignored) {
+                }
+            }
+        }
+
+        schedule();
+    }
+
+    @NotNull
+    public BlobTransferJob enqueueUpload(@NotNull ClientStorageAccount storageAccount,
+                                         @NotNull String containerName,
+                                         @NotNull String blobPath,
+                                         @NotNull File content,
+                                         boolean pageBlob,
+                                         boolean deltaUpload,
+                                         @NotNull BlobTransferJob.Priority priority,
+                                         @Nullable CallableSingleArg<Void, BlobTransferJob> finished) {
+        BlobTransferJob job = new BlobTransferJob(UUID.randomUUID().toString(), BlobTransferJob.Direction.UPLOAD,
+                priority, storageAccount, containerName, blobPath, content, content.length());
+        job.setPageBlob(pageBlob);
+        job.setDeltaUpload(deltaUpload && !pageBlob);
+
+        return enqueue(job, finished);
+    }
+
+    @NotNull
+    public BlobTransferJob enqueueDirectoryUpload(@NotNull ClientStorageAccount storageAccount,
+                                                  @NotNull String containerName,
+                                                  @NotNull String directoryPath,
+                                                  @NotNull File content,
+                                                  @NotNull BlobTransferJob.Priority priority,
+                                                  @Nullable CallableSingleArg<Void, BlobTransferJob> finished) {
+        // the total is only known once the folder has been walked
+        BlobTransferJob job = new BlobTransferJob(UUID.randomUUID().toString(), BlobTransferJob.Direction.UPLOAD,
+                priority, storageAccount, containerName, directoryPath, content, 0);
+        job.setDirectory(true);
+
+        return enqueue(job, finished);
+    }
+
+    @NotNull
+    public BlobTransferJob enqueueDownload(@NotNull ClientStorageAccount storageAccount,
+                                           @NotNull BlobFile blobFile,
+                                           @NotNull File content,
+                                           @NotNull BlobTransferJob.Priority priority,
+                                           @Nullable CallableSingleArg<Void, BlobTransferJob> finished) {
+        BlobTransferJob job = new BlobTransferJob(UUID.randomUUID().toString(), BlobTransferJob.Direction.DOWNLOAD,
+                priority, storageAccount, blobFile.getContainerName(), blobFile.getPath(), content, blobFile.getSize());
+        job.setBlobFile(blobFile);
+
+        return enqueue(job, finished);
+    }
+
+    @NotNull
+    public BlobTransferJob enqueueSync(@NotNull ClientStorageAccount storageAccount,
+                                       @NotNull String containerName,
+                                       @NotNull String directoryPath,
+                                       @NotNull File localDirectory,
+                                       @NotNull BlobSyncSummary.Mode mode,
+                                       @NotNull BlobSyncSummary plan,
+                                       @NotNull BlobTransferJob.Priority priority,
+                                       @Nullable CallableSingleArg<Void, BlobTransferJob> finished) {
+        BlobTransferJob job = new BlobTransferJob(UUID.randomUUID().toString(), BlobTransferJob.Direction.SYNC,
+                priority, storageAccount, containerName, directoryPath, localDirectory, plan.getPlannedTransferBytes());
+        job.setSyncMode(mode);
+        job.setSyncPlan(plan.copy());
+
+        return enqueue(job, finished);
+    }
+
+    @NotNull
+    public synchronized BlobCompressionPolicy getCompressionPolicy() {
+        return copy(compressionPolicy);
+    }
+
+    public synchronized void setCompressionPolicy(@NotNull BlobCompressionPolicy compressionPolicy) {
+        this.compressionPolicy = copy(compressionPolicy);
+
+        DefaultLoader.getIdeHelper().setProperty(AppSettingsNames.BLOB_TRANSFER_COMPRESSION,
+                new Gson().toJson(this.compressionPolicy));
+    }
+
+    @NotNull
+    public synchronized List<BlobTransferJob> getJobs() {
+        return new ArrayList<BlobTransferJob>(jobs);
+    }
+
+    public void cancel(@NotNull BlobTransferJob job) {
+        synchronized (this) {
+            if (job.isFinished()) {
+                return;
+            }
+
+            job.setState(BlobTransferJob.State.CANCELLED);
+
+            JobRunner runner = runningJobs.remove(job.getId());
+
+            if (runner != null) {
+                runner.future.cancel(true);
+            }
+
+            persist();
+            schedule();
+        }
+
+        finish(job);
+    }
+
+    public void retry(@NotNull BlobTransferJob job) {
+        synchronized (this) {
+            if (!jobs.contains(job) ||
+                    (job.getState() != BlobTransferJob.State.FAILED && job.getState() != BlobTransferJob.State.CANCELLED)) {
+                return;
+            }
+
+            job.setState(BlobTransferJob.State.QUEUED);
+            job.setSequence(nextSequence++);
+
+            persist();
+            schedule();
+        }
+
+        notifyListeners(job);
+    }
+
+    public void setPriority(@NotNull BlobTransferJob job, @NotNull BlobTransferJob.Priority priority) {
+        synchronized (this) {
+            job.setPriority(priority);
+
+            persist();
+            schedule();
+        }
+
+        notifyListeners(job);
+    }
+
+    public synchronized void removeFinished() {
+        List<BlobTransferJob> finishedJobs = new ArrayList<BlobTransferJob>();
+
+        for (BlobTransferJob job : jobs) {
+            if (job.isFinished()) {
+                finishedJobs.add(job);
+            }
+        }
+
+        jobs.removeAll(finishedJobs);
+
+        persist();
+    }
+
+    public synchronized int getMaxConcurrentTransfers() {
+        return maxConcurrentTransfers;
+    }
+
+    public synchronized void setMaxConcurrentTransfers(int maxConcurrentTransfers) {
+        this.maxConcurrentTransfers = Math.max(1, maxConcurrentTransfers);
+
+        schedule();
+    }
+
+    public synchronized int getMaxConcurrentTransfersPerAccount() {
+        return maxConcurrentTransfersPerAccount;
+    }
+
+    public synchronized void setMaxConcurrentTransfersPerAccount(int maxConcurrentTransfersPerAccount) {
+        this.maxConcurrentTransfersPerAccount = Math.max(1, maxConcurrentTransfersPerAccount);
+
+        schedule();
+    }
+
+    public void addListener(@NotNull CallableSingleArg<Void, BlobTransferJob> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(@NotNull CallableSingleArg<Void, BlobTransferJob> listener) {
+        listeners.remove(listener);
+    }
+
+    @NotNull
+    private BlobTransferJob enqueue(@NotNull BlobTransferJob job,
+                                    @Nullable CallableSingleArg<Void, BlobTransferJob> finished) {
+        synchronized (this) {
+            job.setSequence(nextSequence++);
+            jobs.add(job);
+
+            if (finished != null) {
+                finishedCallbacks.put(job.getId(), finished);
+            }
+
+            persist();
+            schedule();
+        }
+
+        notifyListeners(job);
+
+        return job;
+    }
+
+    private synchronized void schedule() {
+        while (runningJobs.size() < maxConcurrentTransfers) {
+            final BlobTransferJob job = getNextJob();
+
+            if (job == null) {
+                return;
+            }
+
+            job.setState(BlobTransferJob.State.RUNNING);
+
+            JobRunner runner = new JobRunner(job);
+            runner.future = jobExecutor.submit(runner);
+
+            runningJobs.put(job.getId(), runner);
+        }
+    }
+
+    @Nullable
+    private BlobTransferJob getNextJob() {
+        Map<String, Integer> runningByAccount = new HashMap<String, Integer>();
+
+        for (BlobTransferJob job : jobs) {
+            if (job.getState() == BlobTransferJob.State.RUNNING) {
+                String accountName = job.getStorageAccount().getName();
+                Integer count = runningByAccount.get(accountName);
+
+                runningByAccount.put(accountName, count != null ? count + 1 : 1);
+            }
+        }
+
+        BlobTransferJob nextJob = null;
+
+        for (BlobTransferJob job : jobs) {
+            if (job.getState() != BlobTransferJob.State.QUEUED) {
+                continue;
+            }
+
+            Integer running = runningByAccount.get(job.getStorageAccount().getName());
+
+            if (running != null && running >= maxConcurrentTransfersPerAccount) {
+                continue;
+            }
+
+            if (nextJob == null || job.getPriority().compareTo(nextJob.getPriority()) < 0 ||
+                    (job.getPriority() == nextJob.getPriority() && job.getSequence() < nextJob.getSequence())) {
+                nextJob = job;
+            }
+        }
+
+        return nextJob;
+    }
+
+    private void execute(@NotNull final BlobTransferJob job, @NotNull JobRunner runner) {
+        BlobTransferJob.State state = BlobTransferJob.State.COMPLETED;
+        String errorMessage = null;
+
+        try {
+            CallableSingleArg<Void, Long> processBlock = new CallableSingleArg<Void, Long>() {
+                @Override
+                public Void call(Long bytes) throws Exception {
+                    job.setTransferredBytes(bytes);
+                    return null;
+                }
+            };
+
+            BlobTransferOptions transferOptions = new BlobTransferOptions();
+            transferOptions.setCompressionPolicy(getCompressionPolicy());
+
+            if (job.getDirection() == BlobTransferJob.Direction.SYNC) {
+                BlobSyncSummary.Mode syncMode = job.getSyncMode();
+                BlobSyncSummary syncPlan = job.getSyncPlan();
+
+                if (syncMode == null || syncPlan == null) {
+                    throw new IllegalStateException("The reviewed plan of the sync is unknown");
+                }
+
+                job.setFileCounts(0, (int) syncPlan.getPlannedTotalCount(), 0);
+
+                StorageClientSDKManagerImpl.getManager().syncBlobDirectory(job.getStorageAccount(),
+                        new BlobContainer(job.getContainerName(), "", "", new GregorianCalendar(), ""),
+                        job.getBlobPath(), job.getLocalFile(), syncMode, false, syncPlan,
+                        new CallableSingleArg<Void, BlobSyncSummary>() {
+                            @Override
+                            public Void call(BlobSyncSummary summary) throws Exception {
+                                job.setTransferredBytes(summary.getCompletedTransferBytes());
+                                job.setFileCounts((int) summary.getCompletedTotalCount(),
+                                        (int) summary.getPlannedTotalCount(), (int) summary.getFailedCount());
+                                return null;
+                            }
+                        }, transferOptions);
+            } else if (job.getDirection() == BlobTransferJob.Direction.UPLOAD) {
+                BlobContainer blobContainer = new BlobContainer(job.getContainerName(), "", "",
+                        new GregorianCalendar(), "");
+
+                job.setUnchanged(false);
+
+                if (job.isDirectory()) {
+                    job.setFileCounts(0, 0, 0);
+
+                    StorageClientSDKManagerImpl.getManager().uploadBlobDirectoryContent(job.getStorageAccount(),
+                            blobContainer, job.getBlobPath(), job.getLocalFile(),
+                            new CallableSingleArg<Void, FolderTransferProgress>() {
+                                @Override
+                                public Void call(FolderTransferProgress progress) throws Exception {
+                                    job.setTotalBytes(progress.getTotalBytes());
+                                    job.setTransferredBytes(progress.getTransferredBytes());
+                                    job.setFileCounts(progress.getCompletedFiles(), progress.getTotalFiles(),
+                                            progress.getFailedFiles());
+                                    return null;
+                                }
+                            }, transferOptions);
+                } else if (StorageClientSDKManagerImpl.getManager().isBlobFileContentUnchanged(job.getStorageAccount(),
+                        job.getContainerName(), job.getBlobPath(), job.getLocalFile(), job.isPageBlob())) {
+                    job.setUnchanged(true);
+                    job.setTransferredBytes(job.getTotalBytes());
+                } else if (job.isPageBlob()) {
+                    StorageClientSDKManagerImpl.getManager().uploadPageBlobFileContent(job.getStorageAccount(),
+                            blobContainer, job.getBlobPath(), job.getLocalFile(), processBlock, transferOptions);
+                } else {
+                    transferOptions.setAdaptiveBlockSize(true);
+                    transferOptions.setDeltaUpload(job.isDeltaUpload());
+                    transferOptions.setBlockSizeChanged(new CallableSingleArg<Void, Long>() {
+                        @Override
+                        public Void call(Long blockSize) throws Exception {
+                            job.setBlockSize(blockSize);
+                            return null;
+                        }
+                    });
+
+                    StorageClientSDKManagerImpl.getManager().uploadBlobFileContent(job.getStorageAccount(),
+                            blobContainer, job.getBlobPath(), job.getLocalFile(), processBlock,
+                            BlobTransferOptions.MAX_BLOCK_SIZE, transferOptions);
+                }
+            } else {
+                BlobFile blobFile = job.getBlobFile();
+
+                if (blobFile == null) {
+                    throw new IllegalStateException("The Blob File of the download is unknown");
+                }
+
+                StorageClientSDKManagerImpl.getManager().downloadBlobFileContent(job.getStorageAccount(),
+                        blobFile, job.getLocalFile(), processBlock, transferOptions);
+            }
+        } catch (Throwable t) {
+            state = BlobTransferJob.State.FAILED;
+            errorMessage = getErrorMessage(t);
+        }
+
+        synchronized (this) {
+            if (runningJobs.get(job.getId()) != runner) {
+                // the job was cancelled while running and has already been finished
+                return;
+            }
+
+            runningJobs.remove(job.getId());
+
+            job.setState(state);
+            job.setErrorMessage(errorMessage);
+
+            persist();
+            schedule();
+        }
+
+        finish(job);
+    }
+
+    private void finish(@NotNull BlobTransferJob job) {
+        CallableSingleArg<Void, BlobTransferJob> finished;
+
+        synchronized (this) {
+            finished = job.getState() == BlobTransferJob.State.FAILED ?
+                    finishedCallbacks.get(job.getId()) : finishedCallbacks.remove(job.getId());
+        }
+
+        notifyListeners(job);
+
+        if (finished != null) {
+            try {
+                finished.call(job);
+            } catch (Exception ignored) {
+            }
+        }
+    }
+
+    private void notifyListeners(@NotNull BlobTransferJob job) {
+        for (CallableSingleArg<Void, BlobTransferJob> listener : listeners) {
+            try {
+                listener.call(job);
+            } catch (Exception ignored) {
+            }
+        }
+    }
+
+    private void persist() {
+        List<String> values = new ArrayList<String>();
+        Gson gson = new Gson();
+
+        for (BlobTransferJob job : jobs) {
+            if (job.getState() != BlobTransferJob.State.COMPLETED) {
+                values.add(gson.toJson(job));
+            }
+        }
+
+        if (values.isEmpty()) {
+            DefaultLoader.getIdeHelper().unsetProperty(AppSettingsNames.BLOB_TRANSFER_QUEUE);
+        } else {
+            DefaultLoader.getIdeHelper().setProperties(AppSettingsNames.BLOB_TRANSFER_QUEUE,
+                    values.toArray(new String[values.size()]));
+        }
+    }
+
+    @NotNull
+    private static BlobCompressionPolicy copy(@NotNull BlobCompressionPolicy compressionPolicy) {
+        BlobCompressionPolicy copy = new BlobCompressionPolicy();
+        copy.setCompressUploads(compressionPolicy.isCompressUploads());
+        copy.setDecompressDownloads(compressionPolicy.isDecompressDownloads());
+        copy.setContentTypes(compressionPolicy.getContentTypes());
+        copy.setMinimumSize(compressionPolicy.getMinimumSize());
+
+        return copy;
+    }
+
+    @NotNull
+    private static String getErrorMessage(@NotNull Throwable t) {
+        Throwable cause = t;
+
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getName();
+    }
+
+    private class JobRunner implements Runnable {
+        private final BlobTransferJob job;
+        private Future<?> future;
+
+        JobRunner(@NotNull BlobTransferJob job) {
+            this.job = job;
+        }
+
+        @Override
+        public void run() {
+            notifyListeners(job);
+            execute(job, this);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.tooling.msservices.helpers.Nullable;
+
+public class BlobTransferOptions {
+    public static final int DEFAULT_PARALLELISM = 4;
+    public static final int DEFAULT_RETRY_COUNT = 3;
+    public static final long DEFAULT_RANGE_SIZE = 4 * 1024 * 1024;
+    public static final long MAX_BLOCK_SIZE = BlockSizePolicy.MAX_BLOCK_SIZE;
+
+    private int parallelism = DEFAULT_PARALLELISM;
+    private int retryCount = DEFAULT_RETRY_COUNT;
+    private long rangeSize = DEFAULT_RANGE_SIZE;
+    private boolean adaptiveBlockSize;
+    private boolean verifyContentMD5 = true;
+    private boolean deltaUpload;
+    private CallableSingleArg<Void, Long> blockSizeChanged;
+    private BlobCompressionPolicy compressionPolicy;
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public int getRetryCount() {
+        return retryCount;
+    }
+
+    public void setRetryCount(int retryCount) {
+        this.retryCount = Math.max(0, retryCount);
+    }
+
+    public long getRangeSize() {
+        return rangeSize;
+    }
+
+    public void setRangeSize(long rangeSize) {
+        this.rangeSize = Math.max(1, rangeSize);
+    }
+
+    public boolean isAdaptiveBlockSize() {
+        return adaptiveBlockSize;
+    }
+
+    public void setAdaptiveBlockSize(boolean adaptiveBlockSize) {
+        this.adaptiveBlockSize = adaptiveBlockSize;
+    }
+
+    public boolean isVerifyContentMD5() {
+        return verifyContentMD5;
+    }
+
+    public void setVerifyContentMD5(boolean verifyContentMD5) {
+        this.verifyContentMD5 = verifyContentMD5;
+    }
+
+    public boolean isDeltaUpload() {
+        return deltaUpload;
+    }
+
+    public void setDeltaUpload(boolean deltaUpload) {
+        this.deltaUpload = deltaUpload;
+    }
+
+    @Nullable
+    public CallableSingleArg<Void, Long> getBlockSizeChanged() {
+        return blockSizeChanged;
+    }
+
+    public void setBlockSizeChanged(@Nullable CallableSingleArg<Void, Long> blockSizeChanged) {
+        this.blockSizeChanged = blockSizeChanged;
+    }
+
+    @Nullable
+    public BlobCompressionPolicy getCompressionPolicy() {
+        return compressionPolicy;
+    }
+
+    public void setCompressionPolicy(@Nullable BlobCompressionPolicy compressionPolicy) {
+        this.compressionPolicy = compressionPolicy;
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.microsoft.tooling.msservices.helpers.NotNull;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+class BlockBufferPool {
+    private final BlockingQueue<byte[]> buffers = new LinkedBlockingQueue<byte[]>();
+    private final int capacity;
+    private final int bufferSize;
+    private int allocated;
+
+    BlockBufferPool(int capacity, int bufferSize) {
+        this.capacity = Math.max(1, capacity);
+        this.bufferSize = bufferSize;
+    }
+
+    @NotNull
+    byte[] acquire() throws InterruptedException {
+        byte[] buffer = buffers.poll();
+
+        if (buffer != null) {
+            return buffer;
+        }
+
+        synchronized (this) {
+            if (allocated < capacity) {
+                allocated++;
+                return new byte[bufferSize];
+            }
+        }
+
+        return buffers.take();
+    }
+
+    void release(@NotNull byte[] buffer) {
+        buffers.offer(buffer);
+    }
+
+    int getBufferSize() {
+        return bufferSize;
+    }
+}
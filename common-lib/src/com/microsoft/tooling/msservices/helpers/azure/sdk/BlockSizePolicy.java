@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.tooling.msservices.helpers.Nullable;
+
+class BlockSizePolicy {
+    static final long MIN_BLOCK_SIZE = 256 * 1024;
+    static final long MAX_BLOCK_SIZE = 4 * 1024 * 1024;
+    static final long INITIAL_BLOCK_SIZE = 1024 * 1024;
+    static final int MAX_BLOCK_COUNT = 50000;
+
+    private static final long BLOCK_SIZE_GRANULARITY = 64 * 1024;
+    private static final long FAST_BLOCK_MILLIS = 1000;
+    private static final long SLOW_BLOCK_MILLIS = 8000;
+
+    private final boolean adaptive;
+    private final long length;
+    private final long maxBlockSize;
+    private final CallableSingleArg<Void, Long> blockSizeChanged;
+    private long blockSize;
+
+    private BlockSizePolicy(boolean adaptive, long length, long maxBlockSize, long blockSize,
+                            @Nullable CallableSingleArg<Void, Long> blockSizeChanged) {
+        this.adaptive = adaptive;
+        this.length = length;
+        this.maxBlockSize = maxBlockSize;
+        this.blockSize = blockSize;
+        this.blockSizeChanged = blockSizeChanged;
+    }
+
+    static BlockSizePolicy fixed(long length, long blockSize) {
+        return new BlockSizePolicy(false, length, blockSize, blockSize, null);
+    }
+
+    static BlockSizePolicy adaptive(long length, long maxBlockSize,
+                                    @Nullable CallableSingleArg<Void, Long> blockSizeChanged) {
+        long upperBound = Math.min(Math.max(maxBlockSize, MIN_BLOCK_SIZE), MAX_BLOCK_SIZE);
+        long requiredBlockSize = roundUp(divideRoundingUp(length, MAX_BLOCK_COUNT));
+
+        if (requiredBlockSize > upperBound) {
+            throw new IllegalArgumentException("The Blob File content exceeds the maximum number of blocks");
+        }
+
+        long initialBlockSize = Math.max(requiredBlockSize, Math.min(INITIAL_BLOCK_SIZE, upperBound));
+
+        return new BlockSizePolicy(true, length, upperBound, initialBlockSize, blockSizeChanged);
+    }
+
+    long getMaxBlockSize() {
+        return maxBlockSize;
+    }
+
+    synchronized long getBlockSize() {
+        return blockSize;
+    }
+
+    synchronized long nextBlockSize(long offset, int blockCount) throws Exception {
+        long remaining = length - offset;
+
+        if (adaptive) {
+            int remainingBlocks = Math.max(1, MAX_BLOCK_COUNT - blockCount);
+            long requiredBlockSize = roundUp(divideRoundingUp(remaining, remainingBlocks));
+
+            setBlockSize(Math.min(maxBlockSize, Math.max(blockSize, requiredBlockSize)));
+        }
+
+        return Math.min(blockSize, remaining);
+    }
+
+    synchronized void onBlockUploaded(long size, long elapsedMillis) throws Exception {
+        if (!adaptive || size < blockSize) {
+            return;
+        }
+
+        if (elapsedMillis < FAST_BLOCK_MILLIS) {
+            setBlockSize(Math.min(maxBlockSize, blockSize * 2));
+        } else if (elapsedMillis > SLOW_BLOCK_MILLIS) {
+            setBlockSize(Math.max(MIN_BLOCK_SIZE, roundUp(blockSize / 2)));
+        }
+    }
+
+    private void setBlockSize(long newBlockSize) throws Exception {
+        if (newBlockSize != blockSize) {
+            blockSize = newBlockSize;
+
+            if (blockSizeChanged != null) {
+                blockSizeChanged.call(blockSize);
+            }
+        }
+    }
+
+    private static long divideRoundingUp(long value, long divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+
+    private static long roundUp(long size) {
+        return Math.max(BLOCK_SIZE_GRANULARITY, divideRoundingUp(size, BLOCK_SIZE_GRANULARITY) * BLOCK_SIZE_GRANULARITY);
+    }
+}
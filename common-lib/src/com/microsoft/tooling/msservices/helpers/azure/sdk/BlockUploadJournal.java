@@ -0,0 +1,221 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hashing;
+import com.microsoft.tooling.msservices.helpers.NotNull;
+
+import java.io.*;
+import java.util.*;
+
+class BlockUploadJournal {
+    static final String JOURNAL_EXTENSION = ".azupload";
+
+    private static final String HEADER = "#azure-blob-upload-journal 2";
+    private static final String BLOCK_PREFIX = "block ";
+    private static final File FALLBACK_DIRECTORY = new File(System.getProperty("user.home"),
+            ".azure-services-explorer" + File.separator + "upload-journals");
+
+    private final File file;
+    private final Map<String, String> settings = new LinkedHashMap<String, String>();
+    private final Map<String, long[]> blocks = new HashMap<String, long[]>();
+    private Writer writer;
+
+    private BlockUploadJournal(@NotNull File file) {
+        this.file = file;
+    }
+
+    @NotNull
+    static List<File> getJournalFiles(@NotNull File sourceFile) {
+        // read-only source folders keep their journal in the user's home, keyed by the source path
+        File fallbackFile = new File(FALLBACK_DIRECTORY, Hashing.md5().hashString(sourceFile.getAbsolutePath(),
+                Charsets.UTF_8).toString() + JOURNAL_EXTENSION);
+
+        return Arrays.asList(new File(sourceFile.getParentFile(), sourceFile.getName() + JOURNAL_EXTENSION),
+                fallbackFile);
+    }
+
+    @NotNull
+    static BlockUploadJournal open(@NotNull File sourceFile,
+                                   @NotNull String containerName,
+                                   @NotNull String blobPath)
+            throws IOException {
+        IOException failure = null;
+
+        for (File journalFile : getJournalFiles(sourceFile)) {
+            try {
+                return open(journalFile, sourceFile, containerName, blobPath);
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+
+        throw failure;
+    }
+
+    @NotNull
+    private static BlockUploadJournal open(@NotNull File journalFile,
+                                           @NotNull File sourceFile,
+                                           @NotNull String containerName,
+                                           @NotNull String blobPath)
+            throws IOException {
+        File journalDirectory = journalFile.getParentFile();
+
+        if (journalDirectory != null && !journalDirectory.isDirectory() && !journalDirectory.mkdirs()) {
+            throw new IOException("Unable to create the upload journal directory " + journalDirectory.getPath());
+        }
+
+        // a journal that loads but cannot be appended to would only fail the upload later
+        if (journalFile.exists() ? !journalFile.canWrite() : journalDirectory != null && !journalDirectory.canWrite()) {
+            throw new IOException("The upload journal " + journalFile.getPath() + " is not writable");
+        }
+
+        BlockUploadJournal journal = new BlockUploadJournal(journalFile);
+
+        Map<String, String> expected = new LinkedHashMap<String, String>();
+        expected.put("container", containerName);
+        expected.put("blob", blobPath);
+        expected.put("length", String.valueOf(sourceFile.length()));
+        expected.put("lastModified", String.valueOf(sourceFile.lastModified()));
+
+        if (!journal.load() || !journal.settings.entrySet().containsAll(expected.entrySet())) {
+            journal.settings.clear();
+            journal.settings.putAll(expected);
+            journal.settings.put("uploadId", UUID.randomUUID().toString());
+            journal.blocks.clear();
+            journal.rewrite();
+        }
+
+        return journal;
+    }
+
+    @NotNull
+    String getUploadId() {
+        return settings.get("uploadId");
+    }
+
+    @NotNull
+    Set<String> getBlockIds() {
+        return new HashSet<String>(blocks.keySet());
+    }
+
+    synchronized long getCompletedBlockLength(@NotNull String blockId, long offset) {
+        long[] range = blocks.get(blockId);
+
+        return range != null && range[0] == offset ? range[1] : -1;
+    }
+
+    synchronized void retainBlocks(@NotNull Collection<String> blockIds) throws IOException {
+        if (blocks.keySet().retainAll(blockIds)) {
+            rewrite();
+        }
+    }
+
+    synchronized void recordBlock(@NotNull String blockId, long offset, long length) throws IOException {
+        blocks.put(blockId, new long[]{offset, length});
+
+        if (writer == null) {
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), "UTF-8"));
+        }
+
+        writer.write(BLOCK_PREFIX + blockId + " " + offset + " " + length + "\n");
+        writer.flush();
+    }
+
+    synchronized void close() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+            }
+
+            writer = null;
+        }
+    }
+
+    synchronized void delete() {
+        close();
+
+        if (file.exists() && !file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    private boolean load() throws IOException {
+        if (!file.isFile()) {
+            return false;
+        }
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+
+        try {
+            if (!HEADER.equals(reader.readLine())) {
+                return false;
+            }
+
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(BLOCK_PREFIX)) {
+                    String[] parts = line.substring(BLOCK_PREFIX.length()).split(" ");
+
+                    if (parts.length == 3) {
+                        try {
+                            blocks.put(parts[0], new long[]{Long.parseLong(parts[1]), Long.parseLong(parts[2])});
+                        } catch (NumberFormatException ignored) {
+                        }
+                    }
+                } else if (line.contains("=")) {
+                    int index = line.indexOf('=');
+                    settings.put(line.substring(0, index), line.substring(index + 1));
+                }
+            }
+
+            return settings.containsKey("uploadId");
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void rewrite() throws IOException {
+        close();
+
+        Writer output = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, false), "UTF-8"));
+
+        try {
+            output.write(HEADER + "\n");
+
+            for (Map.Entry<String, String> setting : settings.entrySet()) {
+                output.write(setting.getKey() + "=" + setting.getValue() + "\n");
+            }
+
+            for (Map.Entry<String, long[]> block : blocks.entrySet()) {
+                output.write(BLOCK_PREFIX + block.getKey() + " " + block.getValue()[0] + " " + block.getValue()[1] + "\n");
+            }
+        } finally {
+            output.close();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.microsoft.azure.storage.ResultContinuation;
+import com.microsoft.azure.storage.ResultSegment;
+import com.microsoft.azure.storage.blob.BlobListingDetails;
+import com.microsoft.azure.storage.blob.BlobProperties;
+import com.microsoft.azure.storage.blob.CloudBlob;
+import com.microsoft.azure.storage.blob.CloudBlobContainer;
+import com.microsoft.azure.storage.blob.CloudBlobDirectory;
+import com.microsoft.azure.storage.blob.ListBlobItem;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.tooling.msservices.helpers.NotNull;
+import com.microsoft.tooling.msservices.helpers.Nullable;
+import com.microsoft.tooling.msservices.model.storage.BlobContainerStatistics;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+class ContainerStatisticsScanner {
+    private static final int SEGMENT_SIZE = 5000;
+
+    private final CloudBlobContainer container;
+    private final int parallelism;
+    private final CallableSingleArg<Void, BlobContainerStatistics> processShard;
+    private final BlobContainerStatistics statistics = new BlobContainerStatistics();
+
+    ContainerStatisticsScanner(@NotNull CloudBlobContainer container,
+                               int parallelism,
+                               @Nullable CallableSingleArg<Void, BlobContainerStatistics> processShard) {
+        this.container = container;
+        this.parallelism = Math.max(1, parallelism);
+        this.processShard = processShard;
+    }
+
+    @NotNull
+    BlobContainerStatistics scan() throws Exception {
+        final Queue<String> pendingShards = new ConcurrentLinkedQueue<String>();
+        BlobContainerStatistics rootStatistics = new BlobContainerStatistics();
+
+        listShard("", false, rootStatistics, pendingShards);
+
+        statistics.setTotalShards(pendingShards.size() + 1);
+        completeShard(rootStatistics);
+
+        int workerCount = Math.min(parallelism, pendingShards.size());
+        List<Future<Void>> workers = new ArrayList<Future<Void>>();
+
+        try {
+            for (int i = 0; i < workerCount; i++) {
+                workers.add(BlobTransferHelper.getTransferExecutor().submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        String prefix;
+
+                        while ((prefix = pendingShards.poll()) != null) {
+                            BlobContainerStatistics shardStatistics = new BlobContainerStatistics();
+
+                            listShard(prefix, true, shardStatistics, null);
+                            completeShard(shardStatistics);
+                        }
+
+                        return null;
+                    }
+                }));
+            }
+
+            for (Future<Void> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    pendingShards.clear();
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        } finally {
+            for (Future<Void> worker : workers) {
+                worker.cancel(true);
+            }
+        }
+
+        return statistics.copy();
+    }
+
+    private void listShard(@NotNull String prefix,
+                           boolean useFlatBlobListing,
+                           @NotNull BlobContainerStatistics shardStatistics,
+                           @Nullable Queue<String> directories)
+            throws Exception {
+        ResultContinuation resultContinuation = null;
+        ResultSegment<ListBlobItem> segment;
+
+        do {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+
+            segment = container.listBlobsSegmented(prefix, useFlatBlobListing,
+                    EnumSet.noneOf(BlobListingDetails.class), SEGMENT_SIZE, resultContinuation, null, null);
+
+            for (ListBlobItem item : segment.getResults()) {
+                if (item instanceof CloudBlob) {
+                    BlobProperties properties = ((CloudBlob) item).getProperties();
+
+                    shardStatistics.addBlob(properties.getBlobType().toString(), properties.getLength());
+                } else if (item instanceof CloudBlobDirectory && directories != null) {
+                    directories.add(((CloudBlobDirectory) item).getPrefix());
+                }
+            }
+
+            resultContinuation = segment.getContinuationToken();
+        } while (segment.getHasMoreResults());
+    }
+
+    private void completeShard(@NotNull BlobContainerStatistics shardStatistics) throws Exception {
+        BlobContainerStatistics snapshot;
+
+        synchronized (statistics) {
+            statistics.add(shardStatistics);
+            statistics.setCompletedShards(statistics.getCompletedShards() + 1);
+
+            snapshot = statistics.copy();
+        }
+
+        if (processShard != null) {
+            processShard.call(snapshot);
+        }
+    }
+}
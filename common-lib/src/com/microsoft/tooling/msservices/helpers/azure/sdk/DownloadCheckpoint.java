@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.microsoft.tooling.msservices.helpers.NotNull;
+import com.microsoft.tooling.msservices.helpers.Nullable;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class DownloadCheckpoint {
+    static final String CHECKPOINT_EXTENSION = ".azdownload";
+
+    private static final String HEADER = "#azure-blob-download-checkpoint 1";
+    private static final String RANGE_PREFIX = "range ";
+
+    private final File file;
+    private final Map<Long, Long> completedRanges = new HashMap<Long, Long>();
+    private String eTag;
+    private long length = -1;
+    private long rangeSize = -1;
+    private Writer writer;
+
+    private DownloadCheckpoint(@NotNull File file) {
+        this.file = file;
+    }
+
+    @NotNull
+    static File getCheckpointFile(@NotNull File targetFile) {
+        return new File(targetFile.getParentFile(), targetFile.getName() + CHECKPOINT_EXTENSION);
+    }
+
+    @NotNull
+    static DownloadCheckpoint open(@NotNull File targetFile) throws IOException {
+        DownloadCheckpoint checkpoint = new DownloadCheckpoint(getCheckpointFile(targetFile));
+
+        if (!targetFile.isFile() || !checkpoint.load()) {
+            checkpoint.eTag = null;
+            checkpoint.completedRanges.clear();
+        }
+
+        return checkpoint;
+    }
+
+    @Nullable
+    String getETag() {
+        return eTag;
+    }
+
+    long getLength() {
+        return length;
+    }
+
+    long getRangeSize() {
+        return rangeSize;
+    }
+
+    boolean isResumable(long rangeSize) {
+        return eTag != null && this.rangeSize == rangeSize;
+    }
+
+    synchronized void reset(@NotNull String eTag, long length, long rangeSize) throws IOException {
+        close();
+
+        this.eTag = eTag;
+        this.length = length;
+        this.rangeSize = rangeSize;
+        completedRanges.clear();
+
+        Writer output = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, false), "UTF-8"));
+
+        try {
+            output.write(HEADER + "\n");
+            output.write("eTag=" + eTag + "\n");
+            output.write("length=" + length + "\n");
+            output.write("rangeSize=" + rangeSize + "\n");
+        } finally {
+            output.close();
+        }
+    }
+
+    @NotNull
+    synchronized List<ParallelRangeDownloader.Range> getMissingRanges(@NotNull List<ParallelRangeDownloader.Range> ranges) {
+        List<ParallelRangeDownloader.Range> missingRanges = new ArrayList<ParallelRangeDownloader.Range>();
+
+        for (ParallelRangeDownloader.Range range : ranges) {
+            Long completedLength = completedRanges.get(range.offset);
+
+            if (completedLength == null || completedLength != range.length) {
+                missingRanges.add(range);
+            }
+        }
+
+        return missingRanges;
+    }
+
+    synchronized void recordRange(long offset, long length) throws IOException {
+        completedRanges.put(offset, length);
+
+        if (writer == null) {
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), "UTF-8"));
+        }
+
+        writer.write(RANGE_PREFIX + offset + " " + length + "\n");
+        writer.flush();
+    }
+
+    synchronized void close() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+            }
+
+            writer = null;
+        }
+    }
+
+    synchronized void delete() {
+        close();
+
+        if (file.exists() && !file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    private boolean load() throws IOException {
+        if (!file.isFile()) {
+            return false;
+        }
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+
+        try {
+            if (!HEADER.equals(reader.readLine())) {
+                return false;
+            }
+
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                try {
+                    if (line.startsWith(RANGE_PREFIX)) {
+                        String[] parts = line.substring(RANGE_PREFIX.length()).split(" ");
+
+                        if (parts.length == 2) {
+                            completedRanges.put(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+                        }
+                    } else if (line.startsWith("eTag=")) {
+                        eTag = line.substring("eTag=".length());
+                    } else if (line.startsWith("length=")) {
+                        length = Long.parseLong(line.substring("length=".length()));
+                    } else if (line.startsWith("rangeSize=")) {
+                        rangeSize = Long.parseLong(line.substring("rangeSize=".length()));
+                    }
+                } catch (NumberFormatException ignored) {
+                }
+            }
+
+            return eTag != null && length >= 0 && rangeSize > 0;
+        } finally {
+            reader.close();
+        }
+    }
+}
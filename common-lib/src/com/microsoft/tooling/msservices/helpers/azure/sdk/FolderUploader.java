@@ -0,0 +1,322 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.google.common.base.Strings;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.blob.BlobProperties;
+import com.microsoft.azure.storage.blob.BlobType;
+import com.microsoft.azure.storage.blob.CloudBlobContainer;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.tooling.msservices.helpers.NotNull;
+import com.microsoft.tooling.msservices.helpers.Nullable;
+import com.microsoft.tooling.msservices.model.storage.FolderTransferProgress;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+class FolderUploader {
+    static final long SMALL_FILE_SIZE = BlockSizePolicy.MAX_BLOCK_SIZE;
+
+    private static class FileEntry {
+        final File file;
+        final String blobPath;
+
+        FileEntry(@NotNull File file, @NotNull String blobPath) {
+            this.file = file;
+            this.blobPath = blobPath;
+        }
+    }
+
+    private final CloudBlobContainer container;
+    private final BlobTransferOptions options;
+    private final CallableSingleArg<Void, FolderTransferProgress> processProgress;
+    private final FolderTransferProgress progress = new FolderTransferProgress();
+    private final Queue<FileEntry> smallFiles = new ConcurrentLinkedQueue<FileEntry>();
+    private final Queue<FileEntry> largeFiles = new ConcurrentLinkedQueue<FileEntry>();
+    private BandwidthThrottle throttle;
+    private Exception firstFailure;
+
+    FolderUploader(@NotNull CloudBlobContainer container,
+                   @NotNull BlobTransferOptions options,
+                   @Nullable CallableSingleArg<Void, FolderTransferProgress> processProgress) {
+        this.container = container;
+        this.options = options;
+        this.processProgress = processProgress;
+    }
+
+    void setThrottle(@Nullable BandwidthThrottle throttle) {
+        this.throttle = throttle;
+    }
+
+    @NotNull
+    FolderTransferProgress upload(@NotNull File directory, @NotNull String blobPrefix, @NotNull String delimiter)
+            throws Exception {
+        if (!blobPrefix.isEmpty() && !blobPrefix.endsWith(delimiter)) {
+            blobPrefix += delimiter;
+        }
+
+        walk(directory, blobPrefix, delimiter, new HashSet<String>());
+        reportProgress();
+
+        // one lane works through the large files, whose blocks already fan out on the shared executor, while the
+        // remaining lanes keep the small files moving; every lane takes small files once its own queue runs dry
+        List<Future<Void>> workers = new ArrayList<Future<Void>>();
+
+        try {
+            workers.add(BlobTransferHelper.getTransferExecutor().submit(new UploadWorker(true)));
+
+            for (int i = 0; i < Math.min(options.getParallelism(), smallFiles.size()); i++) {
+                workers.add(BlobTransferHelper.getTransferExecutor().submit(new UploadWorker(false)));
+            }
+
+            for (Future<Void> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    smallFiles.clear();
+                    largeFiles.clear();
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        } finally {
+            for (Future<Void> worker : workers) {
+                worker.cancel(true);
+            }
+        }
+
+        synchronized (this) {
+            if (firstFailure != null) {
+                throw new IOException(String.format("%s of %s files could not be uploaded",
+                        progress.getFailedFiles(), progress.getTotalFiles()), firstFailure);
+            }
+        }
+
+        return progress.copy();
+    }
+
+    private void walk(@NotNull File directory, @NotNull String blobPrefix, @NotNull String delimiter,
+                      @NotNull Set<String> visitedDirectories)
+            throws IOException {
+        // symbolic links can lead back into the tree, and Java 6 has no way to tell them apart
+        if (!visitedDirectories.add(directory.getCanonicalPath())) {
+            return;
+        }
+
+        File[] files = directory.listFiles();
+
+        if (files == null) {
+            throw new IOException("Unable to list the directory " + directory.getPath());
+        }
+
+        for (File file : files) {
+            if (file.isDirectory()) {
+                walk(file, blobPrefix + file.getName() + delimiter, delimiter, visitedDirectories);
+            } else if (file.isFile()) {
+                FileEntry entry = new FileEntry(file, blobPrefix + file.getName());
+                long length = file.length();
+
+                progress.addFile(length);
+                (length <= SMALL_FILE_SIZE ? smallFiles : largeFiles).add(entry);
+            }
+        }
+    }
+
+    private boolean isUnchanged(@NotNull final FileEntry entry) throws Exception {
+        // a separate reference, so the downloaded properties never end up on the uploaded blob
+        final CloudBlockBlob blob = container.getBlockBlobReference(entry.blobPath);
+
+        boolean exists = BlobTransferHelper.executeWithRetry(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                try {
+                    blob.downloadAttributes();
+
+                    return true;
+                } catch (StorageException e) {
+                    if (e.getHttpStatusCode() == HttpURLConnection.HTTP_NOT_FOUND) {
+                        return false;
+                    }
+
+                    throw e;
+                }
+            }
+        }, options.getRetryCount());
+
+        BlobProperties properties = blob.getProperties();
+
+        // a stored hash of encoded content says nothing about the local bytes; size, hash and encoding all come
+        // from the same response, so they describe one version of the blob
+        if (!exists || properties.getBlobType() != BlobType.BLOCK_BLOB ||
+                properties.getLength() != entry.file.length() ||
+                Strings.isNullOrEmpty(properties.getContentMD5()) ||
+                !Strings.isNullOrEmpty(properties.getContentEncoding())) {
+            return false;
+        }
+
+        return BlobTransferHelper.computeContentMD5(entry.file).equals(properties.getContentMD5());
+    }
+
+    private void uploadSmallFile(@NotNull final FileEntry entry) throws Exception {
+        final CloudBlockBlob blob = container.getBlockBlobReference(entry.blobPath);
+        blob.getProperties().setContentType(BlobCompressionPolicy.getContentType(entry.file.getName()));
+
+        final long length = entry.file.length();
+
+        BlobTransferHelper.executeWithRetry(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                InputStream inputStream = BandwidthThrottle.wrap(
+                        new BufferedInputStream(new FileInputStream(entry.file)), throttle);
+
+                try {
+                    blob.upload(inputStream, length);
+                } finally {
+                    inputStream.close();
+                }
+
+                return null;
+            }
+        }, options.getRetryCount());
+
+        progress.addTransferredBytes(length);
+    }
+
+    private void uploadLargeFile(@NotNull FileEntry entry) throws Exception {
+        CloudBlockBlob blob = container.getBlockBlobReference(entry.blobPath);
+        blob.getProperties().setContentType(BlobCompressionPolicy.getContentType(entry.file.getName()));
+
+        final long[] reportedBytes = new long[1];
+
+        // the uploader reports a growing total; the guard only drops reports that arrive after a failure
+        ParallelBlockUploader uploader = new ParallelBlockUploader(blob, options, new CallableSingleArg<Void, Long>() {
+            @Override
+            public Void call(Long bytes) throws Exception {
+                synchronized (reportedBytes) {
+                    if (bytes <= reportedBytes[0]) {
+                        return null;
+                    }
+
+                    progress.addTransferredBytes(bytes - reportedBytes[0]);
+                    reportedBytes[0] = bytes;
+                }
+
+                reportProgress();
+
+                return null;
+            }
+        });
+        uploader.setThrottle(throttle);
+
+        FileChannel channel = new RandomAccessFile(entry.file, "r").getChannel();
+
+        try {
+            uploader.upload(channel, BlockSizePolicy.MAX_BLOCK_SIZE);
+        } catch (Exception e) {
+            // a failed file transferred nothing that counts
+            synchronized (reportedBytes) {
+                progress.addTransferredBytes(-reportedBytes[0]);
+                reportedBytes[0] = Long.MAX_VALUE;
+            }
+
+            throw e;
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void reportProgress() throws Exception {
+        if (processProgress != null) {
+            processProgress.call(progress.copy());
+        }
+    }
+
+    private class UploadWorker implements Callable<Void> {
+        private final boolean largeFileLane;
+
+        UploadWorker(boolean largeFileLane) {
+            this.largeFileLane = largeFileLane;
+        }
+
+        @Override
+        public Void call() throws Exception {
+            while (true) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+
+                FileEntry entry = largeFileLane ? largeFiles.poll() : null;
+                boolean largeFile = entry != null;
+
+                if (entry == null) {
+                    entry = smallFiles.poll();
+                }
+
+                if (entry == null) {
+                    return null;
+                }
+
+                boolean failed = false;
+
+                try {
+                    if (isUnchanged(entry)) {
+                        // resumed or repeated folder uploads only send what actually differs
+                        progress.addTransferredBytes(entry.file.length());
+                    } else if (largeFile) {
+                        uploadLargeFile(entry);
+                    } else {
+                        uploadSmallFile(entry);
+                    }
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    failed = true;
+
+                    synchronized (FolderUploader.this) {
+                        if (firstFailure == null) {
+                            firstFailure = e;
+                        }
+                    }
+                }
+
+                progress.completeFile(failed);
+                reportProgress();
+            }
+        }
+    }
+}
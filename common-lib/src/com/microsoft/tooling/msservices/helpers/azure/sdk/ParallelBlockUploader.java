@@ -0,0 +1,427 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.google.common.io.BaseEncoding;
+import com.microsoft.azure.storage.blob.BlockEntry;
+import com.microsoft.azure.storage.blob.BlockSearchMode;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
+import com.microsoft.azure.storage.core.Base64;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.tooling.msservices.helpers.NotNull;
+import com.microsoft.tooling.msservices.helpers.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+class ParallelBlockUploader {
+    private final CloudBlockBlob blob;
+    private final BlobTransferOptions options;
+    private final CallableSingleArg<Void, Long> processBlock;
+    private final AtomicLong uploadedBytes = new AtomicLong();
+    private final Object progressLock = new Object();
+    private long reportedBytes = -1;
+    private BlockUploadJournal journal;
+    private BandwidthThrottle throttle;
+    private Set<String> reusableBlockIds;
+    private volatile Throwable failure;
+
+    ParallelBlockUploader(@NotNull CloudBlockBlob blob,
+                          @NotNull BlobTransferOptions options,
+                          @Nullable CallableSingleArg<Void, Long> processBlock) {
+        this.blob = blob;
+        this.options = options;
+        this.processBlock = processBlock;
+    }
+
+    void setJournal(@Nullable BlockUploadJournal journal) {
+        this.journal = journal;
+    }
+
+    void setThrottle(@Nullable BandwidthThrottle throttle) {
+        this.throttle = throttle;
+    }
+
+    void setReusableBlockIds(@Nullable Set<String> reusableBlockIds) {
+        this.reusableBlockIds = reusableBlockIds != null ? new HashSet<String>(reusableBlockIds) : null;
+    }
+
+    void upload(@NotNull final InputStream content, long maxBlockSize, long length)
+            throws Exception {
+        BlockSizePolicy blockSizePolicy = createBlockSizePolicy(maxBlockSize, length);
+        final BlockBufferPool bufferPool = new BlockBufferPool(options.getParallelism(),
+                (int) blockSizePolicy.getMaxBlockSize());
+
+        upload(new BlockSource() {
+            @NotNull
+            @Override
+            public ByteBuffer read(long offset, int blockSize) throws Exception {
+                byte[] buffer = bufferPool.acquire();
+
+                try {
+                    readFully(content, buffer, blockSize);
+                } catch (IOException e) {
+                    bufferPool.release(buffer);
+                    throw e;
+                }
+
+                return ByteBuffer.wrap(buffer, 0, blockSize);
+            }
+
+            @Override
+            public void skip(long length) throws IOException {
+                skipFully(content, length);
+            }
+
+            @Override
+            public void release(@NotNull ByteBuffer block) {
+                bufferPool.release(block.array());
+            }
+        }, blockSizePolicy, length);
+    }
+
+    void upload(@NotNull final FileChannel content, long maxBlockSize)
+            throws Exception {
+        long length = content.size();
+        BlockSizePolicy blockSizePolicy = createBlockSizePolicy(maxBlockSize, length);
+        final int bufferSize = (int) blockSizePolicy.getMaxBlockSize();
+        final Semaphore pendingBlocks = new Semaphore(options.getParallelism());
+        // mapped blocks keep the file locked on Windows until they are garbage collected,
+        // so blocks are read into a few reused direct buffers instead
+        final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<ByteBuffer>();
+
+        upload(new BlockSource() {
+            @NotNull
+            @Override
+            public ByteBuffer read(long offset, int blockSize) throws Exception {
+                pendingBlocks.acquire();
+
+                ByteBuffer buffer = buffers.poll();
+
+                if (buffer == null) {
+                    buffer = ByteBuffer.allocateDirect(bufferSize);
+                }
+
+                try {
+                    buffer.clear();
+                    buffer.limit(blockSize);
+                    readFully(content, buffer, offset);
+                    buffer.flip();
+
+                    return buffer;
+                } catch (IOException e) {
+                    release(buffer);
+                    throw e;
+                }
+            }
+
+            @Override
+            public void skip(long length) {
+            }
+
+            @Override
+            public void release(@NotNull ByteBuffer block) {
+                buffers.offer(block);
+                pendingBlocks.release();
+            }
+        }, blockSizePolicy, length);
+    }
+
+    @NotNull
+    private BlockSizePolicy createBlockSizePolicy(long maxBlockSize, long length) throws Exception {
+        // content derived block ids only match across uploads when the chunk boundaries do
+        BlockSizePolicy blockSizePolicy = options.isAdaptiveBlockSize() && reusableBlockIds == null ?
+                BlockSizePolicy.adaptive(length, maxBlockSize, options.getBlockSizeChanged()) :
+                BlockSizePolicy.fixed(length, maxBlockSize);
+
+        if (options.getBlockSizeChanged() != null) {
+            options.getBlockSizeChanged().call(blockSizePolicy.getBlockSize());
+        }
+
+        return blockSizePolicy;
+    }
+
+    private void upload(@NotNull BlockSource blockSource, @NotNull BlockSizePolicy blockSizePolicy, long length)
+            throws Exception {
+        String uploadId = journal != null ? journal.getUploadId() : UUID.randomUUID().toString();
+
+        List<BlockEntry> blockEntries = new ArrayList<BlockEntry>();
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        MessageDigest contentDigest = BlobTransferHelper.createMD5Digest();
+
+        try {
+            long offset = 0;
+
+            reportProgress(0);
+
+            while (offset < length) {
+                throwIfFailed();
+
+                String blockId = getBlockId(uploadId, offset);
+                long completedLength = journal != null ? journal.getCompletedBlockLength(blockId, offset) : -1;
+
+                if (completedLength > 0 && completedLength <= length - offset) {
+                    BlockEntry entry = new BlockEntry(blockId, BlockSearchMode.UNCOMMITTED);
+                    entry.setSize(completedLength);
+
+                    blockEntries.add(entry);
+
+                    blockSource.skip(completedLength);
+                    // blocks uploaded before a resume are not read again, so the whole content hash is unknown
+                    contentDigest = null;
+                    reportProgress(uploadedBytes.addAndGet(completedLength));
+
+                    offset += completedLength;
+                    continue;
+                }
+
+                int blockSize = (int) blockSizePolicy.nextBlockSize(offset, blockEntries.size());
+                ByteBuffer block = blockSource.read(offset, blockSize);
+
+                if (contentDigest != null) {
+                    contentDigest.update(block.duplicate());
+                }
+
+                BlockSearchMode searchMode = BlockSearchMode.UNCOMMITTED;
+
+                if (reusableBlockIds != null) {
+                    blockId = getContentBlockId(block.duplicate());
+                    searchMode = BlockSearchMode.LATEST;
+                }
+
+                BlockEntry entry = new BlockEntry(blockId, searchMode);
+                entry.setSize(blockSize);
+
+                blockEntries.add(entry);
+
+                if (reusableBlockIds != null && !reusableBlockIds.add(blockId)) {
+                    // the blob already holds a block with this content, committed or from an earlier attempt
+                    blockSource.release(block);
+                    reportProgress(uploadedBytes.addAndGet(blockSize));
+
+                    offset += blockSize;
+                    continue;
+                }
+
+                futures.add(BlobTransferHelper.getTransferExecutor().submit(
+                        new BlockUploadTask(blockId, offset, block, blockSource, blockSizePolicy)));
+
+                offset += blockSize;
+            }
+
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw rethrow(e.getCause());
+                }
+            }
+
+            if (contentDigest != null) {
+                blob.getProperties().setContentMD5(Base64.encode(contentDigest.digest()));
+            }
+
+            blob.commitBlockList(blockEntries);
+        } catch (Exception e) {
+            for (Future<Void> future : futures) {
+                future.cancel(true);
+            }
+
+            throw e;
+        }
+    }
+
+    @NotNull
+    static String getBlockId(@NotNull String uploadId, long offset) {
+        return Base64.encode(String.format("%s-%015d", uploadId, offset).getBytes());
+    }
+
+    @NotNull
+    static String getContentBlockId(@NotNull ByteBuffer block) {
+        int length = block.remaining();
+        MessageDigest digest;
+
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this Java runtime", e);
+        }
+
+        digest.update(block);
+
+        // same layout and length as the offset based ids, since a blob rejects block ids of mixed lengths
+        String hash = BaseEncoding.base16().lowerCase().encode(digest.digest()).substring(0, 36);
+
+        return Base64.encode(String.format("%s-%015d", hash, length).getBytes());
+    }
+
+    static void readFully(@NotNull InputStream content, @NotNull byte[] buffer, int length)
+            throws IOException {
+        int read = 0;
+
+        while (read < length) {
+            int count = content.read(buffer, read, length - read);
+
+            if (count < 0) {
+                throw new EOFException("Unexpected end of the Blob File content");
+            }
+
+            read += count;
+        }
+    }
+
+    static void readFully(@NotNull FileChannel content, @NotNull ByteBuffer buffer, long offset)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            int count = content.read(buffer, offset);
+
+            if (count < 0) {
+                throw new EOFException("Unexpected end of the Blob File content");
+            }
+
+            offset += count;
+        }
+    }
+
+    static void skipFully(@NotNull InputStream content, long length)
+            throws IOException {
+        while (length > 0) {
+            long count = content.skip(length);
+
+            if (count <= 0) {
+                if (content.read() < 0) {
+                    throw new EOFException("Unexpected end of the Blob File content");
+                }
+
+                count = 1;
+            }
+
+            length -= count;
+        }
+    }
+
+    private void reportProgress(long bytes) throws Exception {
+        if (processBlock != null) {
+            // block tasks finish out of order; callers only ever see one growing total at a time
+            synchronized (progressLock) {
+                if (bytes > reportedBytes) {
+                    reportedBytes = bytes;
+                    processBlock.call(bytes);
+                }
+            }
+        }
+    }
+
+    private void throwIfFailed() throws Exception {
+        if (failure != null) {
+            throw rethrow(failure);
+        }
+    }
+
+    @NotNull
+    private static Exception rethrow(@NotNull Throwable t) {
+        if (t instanceof Exception) {
+            return (Exception) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        } else {
+            return new Exception(t);
+        }
+    }
+
+    private interface BlockSource {
+        @NotNull
+        ByteBuffer read(long offset, int blockSize) throws Exception;
+
+        void skip(long length) throws IOException;
+
+        void release(@NotNull ByteBuffer block);
+    }
+
+    private class BlockUploadTask implements Callable<Void> {
+        private final String blockId;
+        private final long offset;
+        private final ByteBuffer block;
+        private final int blockSize;
+        private final BlockSource blockSource;
+        private final BlockSizePolicy blockSizePolicy;
+
+        BlockUploadTask(@NotNull String blockId, long offset, @NotNull ByteBuffer block,
+                        @NotNull BlockSource blockSource, @NotNull BlockSizePolicy blockSizePolicy) {
+            this.blockId = blockId;
+            this.offset = offset;
+            this.block = block;
+            this.blockSize = block.remaining();
+            this.blockSource = blockSource;
+            this.blockSizePolicy = blockSizePolicy;
+        }
+
+        @Override
+        public Void call() throws Exception {
+            try {
+                long startTime = System.currentTimeMillis();
+
+                BlobTransferHelper.executeWithRetry(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        blob.uploadBlock(blockId,
+                                BandwidthThrottle.wrap(new ByteBufferInputStream(block.duplicate()), throttle),
+                                blockSize);
+                        return null;
+                    }
+                }, options.getRetryCount());
+
+                blockSizePolicy.onBlockUploaded(blockSize, System.currentTimeMillis() - startTime);
+
+                if (journal != null) {
+                    journal.recordBlock(blockId, offset, blockSize);
+                }
+
+                reportProgress(uploadedBytes.addAndGet(blockSize));
+
+                return null;
+            } catch (Exception e) {
+                failure = e;
+                throw e;
+            } finally {
+                blockSource.release(block);
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.google.common.base.Strings;
+import com.microsoft.azure.storage.AccessCondition;
+import com.microsoft.azure.storage.blob.BlobRequestOptions;
+import com.microsoft.azure.storage.blob.CloudBlob;
+import com.microsoft.azure.storage.blob.PageRange;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.tooling.msservices.helpers.NotNull;
+import com.microsoft.tooling.msservices.helpers.Nullable;
+
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+class ParallelRangeDownloader {
+    // the service only returns a transactional Content-MD5 for ranges up to 4 MB
+    static final long MAX_VERIFIED_RANGE_SIZE = 4 * 1024 * 1024;
+
+    static class Range {
+        final long offset;
+        final long length;
+
+        Range(long offset, long length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private final CloudBlob blob;
+    private final String eTag;
+    private final BlobTransferOptions options;
+    private final CallableSingleArg<Void, Long> processBlock;
+    private final AtomicLong downloadedBytes = new AtomicLong();
+    private DownloadCheckpoint checkpoint;
+    private BandwidthThrottle throttle;
+
+    ParallelRangeDownloader(@NotNull CloudBlob blob,
+                            @Nullable String eTag,
+                            @NotNull BlobTransferOptions options,
+                            @Nullable CallableSingleArg<Void, Long> processBlock) {
+        this.blob = blob;
+        this.eTag = eTag;
+        this.options = options;
+        this.processBlock = processBlock;
+    }
+
+    void setCheckpoint(@Nullable DownloadCheckpoint checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    void setThrottle(@Nullable BandwidthThrottle throttle) {
+        this.throttle = throttle;
+    }
+
+    void download(@NotNull FileChannel channel, long length)
+            throws Exception {
+        download(channel, length, splitRanges(0, length, options.getRangeSize()));
+    }
+
+    void download(@NotNull final FileChannel channel, long length, @NotNull List<Range> ranges)
+            throws Exception {
+        final Queue<Range> pendingRanges = new ConcurrentLinkedQueue<Range>(ranges);
+        int workerCount = Math.min(options.getParallelism(), ranges.size());
+        List<Future<Void>> workers = new ArrayList<Future<Void>>();
+        long pendingBytes = 0;
+
+        for (Range range : ranges) {
+            pendingBytes += range.length;
+        }
+
+        downloadedBytes.set(length - pendingBytes);
+        reportProgress(downloadedBytes.get());
+
+        try {
+            for (int i = 0; i < workerCount; i++) {
+                workers.add(BlobTransferHelper.getTransferExecutor().submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        Range range;
+
+                        while ((range = pendingRanges.poll()) != null) {
+                            if (Thread.currentThread().isInterrupted()) {
+                                throw new InterruptedException();
+                            }
+
+                            downloadRange(channel, range);
+                        }
+
+                        return null;
+                    }
+                }));
+            }
+
+            for (Future<Void> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    pendingRanges.clear();
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        } catch (Exception e) {
+            for (Future<Void> worker : workers) {
+                worker.cancel(true);
+            }
+
+            throw e;
+        }
+    }
+
+    @NotNull
+    static List<Range> splitRanges(long offset, long length, long rangeSize) {
+        List<Range> ranges = new ArrayList<Range>();
+        long end = offset + length;
+
+        while (offset < end) {
+            long size = Math.min(rangeSize, end - offset);
+            ranges.add(new Range(offset, size));
+            offset += size;
+        }
+
+        return ranges;
+    }
+
+    @NotNull
+    static List<Range> splitPageRanges(@NotNull List<PageRange> pageRanges, long rangeSize) {
+        List<Range> ranges = new ArrayList<Range>();
+
+        for (PageRange pageRange : pageRanges) {
+            long length = pageRange.getEndOffset() - pageRange.getStartOffset() + 1;
+            ranges.addAll(splitRanges(pageRange.getStartOffset(), length, rangeSize));
+        }
+
+        return ranges;
+    }
+
+    private void downloadRange(@NotNull final FileChannel channel, @NotNull final Range range)
+            throws Exception {
+        BlobTransferHelper.executeWithRetry(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                AccessCondition accessCondition = Strings.isNullOrEmpty(eTag) ?
+                        null : AccessCondition.generateIfMatchCondition(eTag);
+                BlobRequestOptions requestOptions = new BlobRequestOptions();
+                requestOptions.setUseTransactionalContentMD5(options.isVerifyContentMD5() &&
+                        range.length <= MAX_VERIFIED_RANGE_SIZE);
+
+                blob.downloadRange(range.offset, range.length,
+                        BandwidthThrottle.wrap(new FileChannelOutputStream(channel, range.offset), throttle),
+                        accessCondition, requestOptions, null);
+                return null;
+            }
+        }, options.getRetryCount());
+
+        if (checkpoint != null) {
+            channel.force(false);
+            checkpoint.recordRange(range.offset, range.length);
+        }
+
+        reportProgress(downloadedBytes.addAndGet(range.length));
+    }
+
+    private void reportProgress(long bytes) throws Exception {
+        if (processBlock != null) {
+            processBlock.call(bytes);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.microsoft.azure.storage.blob.CloudPageBlob;
+import com.microsoft.azure.storage.core.Base64;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.tooling.msservices.helpers.NotNull;
+import com.microsoft.tooling.msservices.helpers.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+class SparsePageBlobUploader {
+    static final int PAGE_SIZE = 512;
+    static final int WINDOW_SIZE = 4 * 1024 * 1024;
+
+    private final CloudPageBlob blob;
+    private final BlobTransferOptions options;
+    private final CallableSingleArg<Void, Long> processBlock;
+    private final AtomicLong processedBytes = new AtomicLong();
+    private BandwidthThrottle throttle;
+
+    SparsePageBlobUploader(@NotNull CloudPageBlob blob,
+                           @NotNull BlobTransferOptions options,
+                           @Nullable CallableSingleArg<Void, Long> processBlock) {
+        this.blob = blob;
+        this.options = options;
+        this.processBlock = processBlock;
+    }
+
+    void setThrottle(@Nullable BandwidthThrottle throttle) {
+        this.throttle = throttle;
+    }
+
+    void upload(@NotNull InputStream content, long length)
+            throws Exception {
+        if (length % PAGE_SIZE != 0) {
+            throw new IllegalArgumentException("The Page Blob content length must be a multiple of " + PAGE_SIZE + " bytes");
+        }
+
+        blob.create(length);
+
+        BlockBufferPool bufferPool = new BlockBufferPool(options.getParallelism(), WINDOW_SIZE);
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        MessageDigest contentDigest = BlobTransferHelper.createMD5Digest();
+
+        try {
+            long offset = 0;
+
+            reportProgress(0);
+
+            while (offset < length) {
+                int windowSize = (int) Math.min(WINDOW_SIZE, length - offset);
+                byte[] buffer = bufferPool.acquire();
+                List<int[]> pageRanges;
+
+                try {
+                    ParallelBlockUploader.readFully(content, buffer, windowSize);
+                    contentDigest.update(buffer, 0, windowSize);
+                    pageRanges = getNonZeroPageRanges(buffer, windowSize);
+                } catch (IOException e) {
+                    bufferPool.release(buffer);
+                    throw e;
+                }
+
+                if (pageRanges.isEmpty()) {
+                    bufferPool.release(buffer);
+                    reportProgress(processedBytes.addAndGet(windowSize));
+                } else {
+                    futures.add(BlobTransferHelper.getTransferExecutor().submit(
+                            new PageUploadTask(offset, buffer, windowSize, pageRanges, bufferPool)));
+                }
+
+                offset += windowSize;
+
+                waitForCompleted(futures, false);
+            }
+
+            waitForCompleted(futures, true);
+
+            blob.getProperties().setContentMD5(Base64.encode(contentDigest.digest()));
+            blob.uploadProperties();
+        } catch (Exception e) {
+            for (Future<Void> future : futures) {
+                future.cancel(true);
+            }
+
+            throw e;
+        }
+    }
+
+    @NotNull
+    static List<int[]> getNonZeroPageRanges(@NotNull byte[] buffer, int length) {
+        List<int[]> pageRanges = new ArrayList<int[]>();
+        int start = -1;
+
+        for (int page = 0; page < length; page += PAGE_SIZE) {
+            boolean empty = isZero(buffer, page, Math.min(PAGE_SIZE, length - page));
+
+            if (!empty && start < 0) {
+                start = page;
+            } else if (empty && start >= 0) {
+                pageRanges.add(new int[]{start, page - start});
+                start = -1;
+            }
+        }
+
+        if (start >= 0) {
+            pageRanges.add(new int[]{start, length - start});
+        }
+
+        return pageRanges;
+    }
+
+    private static boolean isZero(@NotNull byte[] buffer, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (buffer[i] != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static void waitForCompleted(@NotNull List<Future<Void>> futures, boolean waitAll)
+            throws Exception {
+        for (Iterator<Future<Void>> iterator = futures.iterator(); iterator.hasNext(); ) {
+            Future<Void> future = iterator.next();
+
+            if (waitAll || future.isDone()) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+
+                iterator.remove();
+            }
+        }
+    }
+
+    private void reportProgress(long bytes) throws Exception {
+        if (processBlock != null) {
+            processBlock.call(bytes);
+        }
+    }
+
+    private class PageUploadTask implements Callable<Void> {
+        private final long offset;
+        private final byte[] buffer;
+        private final int windowSize;
+        private final List<int[]> pageRanges;
+        private final BlockBufferPool bufferPool;
+
+        PageUploadTask(long offset, @NotNull byte[] buffer, int windowSize, @NotNull List<int[]> pageRanges,
+                       @NotNull BlockBufferPool bufferPool) {
+            this.offset = offset;
+            this.buffer = buffer;
+            this.windowSize = windowSize;
+            this.pageRanges = pageRanges;
+            this.bufferPool = bufferPool;
+        }
+
+        @Override
+        public Void call() throws Exception {
+            try {
+                for (final int[] pageRange : pageRanges) {
+                    BlobTransferHelper.executeWithRetry(new Callable<Void>() {
+                        @Override
+                        public Void call() throws Exception {
+                            blob.uploadPages(BandwidthThrottle.wrap(
+                                    new ByteArrayInputStream(buffer, pageRange[0], pageRange[1]), throttle),
+                                    offset + pageRange[0], pageRange[1]);
+                            return null;
+                        }
+                    }, options.getRetryCount());
+                }
+
+                reportProgress(processedBytes.addAndGet(windowSize));
+
+                return null;
+            } finally {
+                bufferPool.release(buffer);
+            }
+        }
+    }
+}
@@ -23,11 +23,14 @@ package com.microsoft.tooling.msservices.helpers.azure.sdk;
 
 import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
 import com.microsoft.tooling.msservices.helpers.NotNull;
+import com.microsoft.tooling.msservices.helpers.Nullable;
 import com.microsoft.tooling.msservices.helpers.azure.AzureCmdException;
 import com.microsoft.tooling.msservices.model.storage.*;
 
+import java.io.File;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.util.List;
 import java.util.Map;
 
@@ -38,6 +41,17 @@ public interface StorageClientSDKManager {
     @NotNull
     List<BlobContainer> getBlobContainers(@NotNull ClientStorageAccount storageAccount) throws AzureCmdException;
 
+    void loadBlobContainerPublicAccess(@NotNull ClientStorageAccount storageAccount,
+                                       @NotNull List<BlobContainer> blobContainers,
+                                       CallableSingleArg<Void, BlobContainer> processBlobContainer)
+            throws AzureCmdException;
+
+    @NotNull
+    BlobContainerStatistics getBlobContainerStatistics(@NotNull ClientStorageAccount storageAccount,
+                                                       @NotNull BlobContainer blobContainer,
+                                                       CallableSingleArg<Void, BlobContainerStatistics> processShard)
+            throws AzureCmdException;
+
     @NotNull
     BlobContainer createBlobContainer(@NotNull ClientStorageAccount storageAccount, @NotNull BlobContainer blobContainer)
             throws AzureCmdException;
@@ -53,6 +67,38 @@ public interface StorageClientSDKManager {
     List<BlobItem> getBlobItems(@NotNull ClientStorageAccount storageAccount, @NotNull BlobDirectory blobDirectory)
             throws AzureCmdException;
 
+    @NotNull
+    BlobItemPage getBlobItems(@NotNull ClientStorageAccount storageAccount,
+                              @NotNull BlobDirectory blobDirectory,
+                              int maxResults,
+                              @Nullable String continuationToken)
+            throws AzureCmdException;
+
+    @NotNull
+    BlobItemPage getBlobItems(@NotNull ClientStorageAccount storageAccount,
+                              @NotNull BlobDirectory blobDirectory,
+                              @NotNull String prefix,
+                              boolean useFlatBlobListing,
+                              int maxResults,
+                              @Nullable String continuationToken)
+            throws AzureCmdException;
+
+    @Nullable
+    BlobItemPage getCachedBlobItems(@NotNull ClientStorageAccount storageAccount,
+                                    @NotNull BlobDirectory blobDirectory,
+                                    int maxResults,
+                                    @Nullable String continuationToken)
+            throws AzureCmdException;
+
+    boolean refreshCachedBlobItems(@NotNull ClientStorageAccount storageAccount,
+                                   @NotNull BlobDirectory blobDirectory)
+            throws AzureCmdException;
+
+    boolean refreshCachedBlobItems(@NotNull ClientStorageAccount storageAccount,
+                                   @NotNull BlobDirectory blobDirectory,
+                                   boolean force)
+            throws AzureCmdException;
+
     @NotNull
     BlobDirectory createBlobDirectory(@NotNull ClientStorageAccount storageAccount,
                                       @NotNull BlobDirectory parentBlobDirectory,
@@ -69,6 +115,16 @@ public interface StorageClientSDKManager {
                         @NotNull BlobFile blobFile)
             throws AzureCmdException;
 
+    @NotNull
+    BlobDeleteProgress deleteBlobs(@NotNull ClientStorageAccount storageAccount,
+                                   @NotNull BlobContainer blobContainer,
+                                   @NotNull List<BlobFile> blobFiles,
+                                   @NotNull List<String> prefixes,
+                                   CallableSingleArg<Void, String> processDeleted,
+                                   CallableSingleArg<Void, BlobDeleteProgress> processProgress,
+                                   @NotNull BlobTransferOptions transferOptions)
+            throws AzureCmdException;
+
     void uploadBlobFileContent(@NotNull ClientStorageAccount storageAccount,
                                @NotNull BlobContainer blobContainer,
                                @NotNull String filePath,
@@ -78,11 +134,111 @@ public interface StorageClientSDKManager {
                                long length)
             throws AzureCmdException;
 
+    void uploadBlobFileContent(@NotNull ClientStorageAccount storageAccount,
+                               @NotNull BlobContainer blobContainer,
+                               @NotNull String filePath,
+                               @NotNull InputStream content,
+                               CallableSingleArg<Void, Long> processBlockEvent,
+                               long maxBlockSize,
+                               long length,
+                               @NotNull BlobTransferOptions transferOptions)
+            throws AzureCmdException;
+
+    void uploadBlobFileContent(@NotNull ClientStorageAccount storageAccount,
+                               @NotNull BlobContainer blobContainer,
+                               @NotNull String filePath,
+                               @NotNull File content,
+                               CallableSingleArg<Void, Long> processBlockEvent,
+                               long maxBlockSize,
+                               @NotNull BlobTransferOptions transferOptions)
+            throws AzureCmdException;
+
+    void uploadBlobFileContent(@NotNull ClientStorageAccount storageAccount,
+                               @NotNull BlobContainer blobContainer,
+                               @NotNull String filePath,
+                               @NotNull FileChannel content,
+                               CallableSingleArg<Void, Long> processBlockEvent,
+                               long maxBlockSize,
+                               @NotNull BlobTransferOptions transferOptions)
+            throws AzureCmdException;
+
+    void uploadBlobDirectoryContent(@NotNull ClientStorageAccount storageAccount,
+                                    @NotNull BlobContainer blobContainer,
+                                    @NotNull String directoryPath,
+                                    @NotNull File content,
+                                    CallableSingleArg<Void, FolderTransferProgress> processProgress,
+                                    @NotNull BlobTransferOptions transferOptions)
+            throws AzureCmdException;
+
+    @NotNull
+    BlobSyncSummary syncBlobDirectory(@NotNull ClientStorageAccount storageAccount,
+                                      @NotNull BlobContainer blobContainer,
+                                      @NotNull String directoryPath,
+                                      @NotNull File localDirectory,
+                                      @NotNull BlobSyncSummary.Mode mode,
+                                      boolean dryRun,
+                                      @Nullable BlobSyncSummary expectedPlan,
+                                      CallableSingleArg<Void, BlobSyncSummary> processProgress,
+                                      @NotNull BlobTransferOptions transferOptions)
+            throws AzureCmdException;
+
+    @NotNull
+    BlobCopyProgress copyBlobs(@NotNull ClientStorageAccount sourceAccount,
+                               @NotNull BlobContainer sourceContainer,
+                               @NotNull String prefix,
+                               @NotNull ClientStorageAccount targetAccount,
+                               @NotNull BlobContainer targetContainer,
+                               CallableSingleArg<Void, BlobCopyProgress> processProgress,
+                               @NotNull BlobTransferOptions transferOptions)
+            throws AzureCmdException;
+
+    boolean isBlobFileContentUnchanged(@NotNull ClientStorageAccount storageAccount,
+                                       @NotNull String containerName,
+                                       @NotNull String filePath,
+                                       @NotNull File content,
+                                       boolean pageBlob)
+            throws AzureCmdException;
+
+    void uploadPageBlobFileContent(@NotNull ClientStorageAccount storageAccount,
+                                   @NotNull BlobContainer blobContainer,
+                                   @NotNull String filePath,
+                                   @NotNull File content,
+                                   CallableSingleArg<Void, Long> processBlockEvent,
+                                   @NotNull BlobTransferOptions transferOptions)
+            throws AzureCmdException;
+
     void downloadBlobFileContent(@NotNull ClientStorageAccount storageAccount,
                                  @NotNull BlobFile blobFile,
                                  @NotNull OutputStream content)
             throws AzureCmdException;
 
+    void downloadBlobFileContent(@NotNull ClientStorageAccount storageAccount,
+                                 @NotNull BlobFile blobFile,
+                                 @NotNull FileChannel content,
+                                 CallableSingleArg<Void, Long> processBlockEvent,
+                                 @NotNull BlobTransferOptions transferOptions)
+            throws AzureCmdException;
+
+    void downloadBlobFileContent(@NotNull ClientStorageAccount storageAccount,
+                                 @NotNull BlobFile blobFile,
+                                 @NotNull File content,
+                                 CallableSingleArg<Void, Long> processBlockEvent,
+                                 @NotNull BlobTransferOptions transferOptions)
+            throws AzureCmdException;
+
+    @NotNull
+    byte[] downloadBlobRange(@NotNull ClientStorageAccount storageAccount,
+                             @NotNull BlobFile blobFile,
+                             @Nullable String eTag,
+                             long offset,
+                             int length)
+            throws AzureCmdException;
+
+    @Nullable
+    BlobFile refreshBlobFile(@NotNull ClientStorageAccount storageAccount,
+                             @NotNull BlobFile blobFile)
+            throws AzureCmdException;
+
     @NotNull
     List<Queue> getQueues(@NotNull ClientStorageAccount storageAccount)
             throws AzureCmdException;
@@ -22,10 +22,15 @@
 package com.microsoft.tooling.msservices.helpers.azure.sdk;
 
 import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
+import com.microsoft.azure.storage.AccessCondition;
 import com.microsoft.azure.storage.CloudStorageAccount;
+import com.microsoft.azure.storage.ResultContinuation;
+import com.microsoft.azure.storage.ResultContinuationType;
+import com.microsoft.azure.storage.ResultSegment;
 import com.microsoft.azure.storage.StorageException;
 import com.microsoft.azure.storage.blob.*;
-import com.microsoft.azure.storage.core.Base64;
 import com.microsoft.azure.storage.core.Utility;
 import com.microsoft.azure.storage.queue.CloudQueue;
 import com.microsoft.azure.storage.queue.CloudQueueClient;
@@ -41,16 +46,36 @@ import com.microsoft.tooling.msservices.model.storage.Queue;
 import com.microsoft.tooling.msservices.model.storage.TableEntity;
 import com.microsoft.tooling.msservices.model.storage.TableEntity.Property;
 
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.*;
+import java.net.HttpURLConnection;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 public class StorageClientSDKManagerImpl implements StorageClientSDKManager {
+    private static final int BLOB_INDEX_SEGMENT_SIZE = 5000;
+    private static final long BLOB_INDEX_REVALIDATION_MILLIS = 60 * 1000;
+    private static final int PUBLIC_ACCESS_PARALLELISM = 8;
+    private static final int STATISTICS_PARALLELISM = 8;
+    private static final int COMPRESSION_BUFFER_SIZE = 64 * 1024;
+
     private static StorageClientSDKManager apiManager;
 
+    private final BlobIndexCache blobIndexCache = new BlobIndexCache(new File(System.getProperty("user.home"),
+            ".azure-services-explorer" + File.separator + "blob-index"));
+    private final Set<String> revalidatingIndexes = new HashSet<String>();
+
     private StorageClientSDKManagerImpl() {
     }
 
@@ -122,18 +147,11 @@ public class StorageClientSDKManagerImpl implements StorageClientSDKManager {
                     }
                 }
 
-                String publicReadAccessType = "";
-                BlobContainerPermissions blobContainerPermissions = container.downloadPermissions();
-
-                if (blobContainerPermissions != null && blobContainerPermissions.getPublicAccess() != null) {
-                    publicReadAccessType = blobContainerPermissions.getPublicAccess().toString();
-                }
-
                 bcList.add(new BlobContainer(Strings.nullToEmpty(container.getName()),
                         uri,
                         eTag,
                         lastModified,
-                        publicReadAccessType));
+                        ""));
             }
 
             return bcList;
@@ -142,6 +160,74 @@ public class StorageClientSDKManagerImpl implements StorageClientSDKManager {
         }
     }
 
+    @Override
+    public void loadBlobContainerPublicAccess(@NotNull ClientStorageAccount storageAccount,
+                                              @NotNull List<BlobContainer> blobContainers,
+                                              final CallableSingleArg<Void, BlobContainer> processBlobContainer)
+            throws AzureCmdException {
+        try {
+            final CloudBlobClient client = getCloudBlobClient(storageAccount);
+            final ConcurrentLinkedQueue<BlobContainer> pendingContainers = new ConcurrentLinkedQueue<BlobContainer>(blobContainers);
+            int workerCount = Math.min(PUBLIC_ACCESS_PARALLELISM, blobContainers.size());
+            List<Future<Void>> workers = new ArrayList<Future<Void>>();
+
+            try {
+                for (int i = 0; i < workerCount; i++) {
+                    workers.add(BlobTransferHelper.getTransferExecutor().submit(new Callable<Void>() {
+                        @Override
+                        public Void call() throws Exception {
+                            BlobContainer blobContainer;
+
+                            while ((blobContainer = pendingContainers.poll()) != null) {
+                                if (Thread.currentThread().isInterrupted()) {
+                                    throw new InterruptedException();
+                                }
+
+                                String publicReadAccessType = getPublicReadAccessType(client, blobContainer);
+
+                                if (publicReadAccessType != null) {
+                                    blobContainer.setPublicReadAccessType(publicReadAccessType);
+
+                                    if (processBlobContainer != null) {
+                                        processBlobContainer.call(blobContainer);
+                                    }
+                                }
+                            }
+
+                            return null;
+                        }
+                    }));
+                }
+
+                for (Future<Void> worker : workers) {
+                    worker.get();
+                }
+            } finally {
+                for (Future<Void> worker : workers) {
+                    worker.cancel(true);
+                }
+            }
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error retrieving the Blob Container public access", t);
+        }
+    }
+
+    @NotNull
+    @Override
+    public BlobContainerStatistics getBlobContainerStatistics(@NotNull ClientStorageAccount storageAccount,
+                                                              @NotNull BlobContainer blobContainer,
+                                                              CallableSingleArg<Void, BlobContainerStatistics> processShard)
+            throws AzureCmdException {
+        try {
+            CloudBlobClient client = getCloudBlobClient(storageAccount);
+            CloudBlobContainer container = client.getContainerReference(blobContainer.getName());
+
+            return new ContainerStatisticsScanner(container, STATISTICS_PARALLELISM, processShard).scan();
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error retrieving the Blob Container statistics", t);
+        }
+    }
+
     @NotNull
     @Override
     public BlobContainer createBlobContainer(@NotNull ClientStorageAccount storageAccount,
@@ -195,6 +281,8 @@ public class StorageClientSDKManagerImpl implements StorageClientSDKManager {
             container.deleteIfExists();
         } catch (Throwable t) {
             throw new AzureCmdException("Error deleting the Blob Container", t);
+        } finally {
+            invalidateBlobIndex(storageAccount, blobContainer.getName());
         }
     }
 
@@ -231,62 +319,166 @@ public class StorageClientSDKManagerImpl implements StorageClientSDKManager {
             CloudBlobDirectory directory = container.getDirectoryReference(blobDirectory.getPath());
 
             for (ListBlobItem item : directory.listBlobs()) {
-                String uri = item.getUri() != null ? item.getUri().toString() : "";
-
-                if (item instanceof CloudBlobDirectory) {
-                    CloudBlobDirectory subDirectory = (CloudBlobDirectory) item;
-
-                    String name = extractBlobItemName(subDirectory.getPrefix(), delimiter);
-                    String path = Strings.nullToEmpty(subDirectory.getPrefix());
-
-                    biList.add(new BlobDirectory(name, uri, containerName, path));
-                } else if (item instanceof CloudBlob) {
-                    CloudBlob blob = (CloudBlob) item;
-
-                    String name = extractBlobItemName(blob.getName(), delimiter);
-                    String path = Strings.nullToEmpty(blob.getName());
-                    String type = "";
-                    String cacheControlHeader = "";
-                    String contentEncoding = "";
-                    String contentLanguage = "";
-                    String contentType = "";
-                    String contentMD5Header = "";
-                    String eTag = "";
-                    Calendar lastModified = new GregorianCalendar();
-                    long size = 0;
-
-                    BlobProperties properties = blob.getProperties();
-
-                    if (properties != null) {
-                        if (properties.getBlobType() != null) {
-                            type = properties.getBlobType().toString();
-                        }
+                BlobItem blobItem = getBlobItem(item, containerName, delimiter);
 
-                        cacheControlHeader = Strings.nullToEmpty(properties.getCacheControl());
-                        contentEncoding = Strings.nullToEmpty(properties.getContentEncoding());
-                        contentLanguage = Strings.nullToEmpty(properties.getContentLanguage());
-                        contentType = Strings.nullToEmpty(properties.getContentType());
-                        contentMD5Header = Strings.nullToEmpty(properties.getContentMD5());
-                        eTag = Strings.nullToEmpty(properties.getEtag());
+                if (blobItem != null) {
+                    biList.add(blobItem);
+                }
+            }
 
-                        if (properties.getLastModified() != null) {
-                            lastModified.setTime(properties.getLastModified());
-                        }
+            return biList;
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error retrieving the Blob Item list", t);
+        }
+    }
 
-                        size = properties.getLength();
-                    }
+    @NotNull
+    @Override
+    public BlobItemPage getBlobItems(@NotNull ClientStorageAccount storageAccount,
+                                     @NotNull BlobDirectory blobDirectory,
+                                     int maxResults,
+                                     @Nullable String continuationToken)
+            throws AzureCmdException {
+        return getBlobItems(storageAccount, blobDirectory, "", false, maxResults, continuationToken);
+    }
+
+    @NotNull
+    @Override
+    public BlobItemPage getBlobItems(@NotNull ClientStorageAccount storageAccount,
+                                     @NotNull BlobDirectory blobDirectory,
+                                     @NotNull String prefix,
+                                     boolean useFlatBlobListing,
+                                     int maxResults,
+                                     @Nullable String continuationToken)
+            throws AzureCmdException {
+        List<BlobItem> biList = new ArrayList<BlobItem>();
+
+        try {
+            CloudBlobClient client = getCloudBlobClient(storageAccount);
+            String containerName = blobDirectory.getContainerName();
+            String delimiter = client.getDirectoryDelimiter();
+
+            CloudBlobContainer container = client.getContainerReference(containerName);
+
+            ResultSegment<ListBlobItem> segment = container.listBlobsSegmented(blobDirectory.getPath() + prefix,
+                    useFlatBlobListing, EnumSet.noneOf(BlobListingDetails.class), maxResults,
+                    getResultContinuation(continuationToken), null, null);
 
-                    biList.add(new BlobFile(name, uri, containerName, path, type, cacheControlHeader, contentEncoding,
-                            contentLanguage, contentType, contentMD5Header, eTag, lastModified, size));
+            for (ListBlobItem item : segment.getResults()) {
+                BlobItem blobItem = getBlobItem(item, containerName, delimiter);
+
+                if (blobItem != null) {
+                    biList.add(blobItem);
                 }
             }
 
-            return biList;
+            String nextContinuationToken = null;
+
+            if (segment.getHasMoreResults() && segment.getContinuationToken() != null) {
+                nextContinuationToken = segment.getContinuationToken().getNextMarker();
+            }
+
+            return new BlobItemPage(biList, nextContinuationToken);
         } catch (Throwable t) {
             throw new AzureCmdException("Error retrieving the Blob Item list", t);
         }
     }
 
+    @Nullable
+    @Override
+    public BlobItemPage getCachedBlobItems(@NotNull ClientStorageAccount storageAccount,
+                                           @NotNull BlobDirectory blobDirectory,
+                                           int maxResults,
+                                           @Nullable String continuationToken)
+            throws AzureCmdException {
+        try {
+            return blobIndexCache.readPage(storageAccount.getName(), blobDirectory.getContainerName(),
+                    blobDirectory.getPath(), maxResults, continuationToken);
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error reading the cached Blob Item list", t);
+        }
+    }
+
+    @Override
+    public boolean refreshCachedBlobItems(@NotNull ClientStorageAccount storageAccount,
+                                          @NotNull BlobDirectory blobDirectory)
+            throws AzureCmdException {
+        return refreshCachedBlobItems(storageAccount, blobDirectory, false);
+    }
+
+    @Override
+    public boolean refreshCachedBlobItems(@NotNull ClientStorageAccount storageAccount,
+                                          @NotNull BlobDirectory blobDirectory,
+                                          boolean force)
+            throws AzureCmdException {
+        String containerName = blobDirectory.getContainerName();
+        String indexKey = storageAccount.getName() + "/" + containerName + "/" + blobDirectory.getPath();
+
+        // a recent listing is trusted, and a relisting already in flight covers this one; an explicit
+        // refresh lists again regardless, since the one in flight may have started before the change
+        if (!force && blobIndexCache.isFresh(storageAccount.getName(), containerName, blobDirectory.getPath(),
+                BLOB_INDEX_REVALIDATION_MILLIS)) {
+            return false;
+        }
+
+        boolean registered;
+
+        synchronized (revalidatingIndexes) {
+            registered = revalidatingIndexes.add(indexKey);
+        }
+
+        if (!registered && !force) {
+            return false;
+        }
+
+        try {
+            CloudBlobClient client = getCloudBlobClient(storageAccount);
+            String delimiter = client.getDirectoryDelimiter();
+
+            CloudBlobContainer container = client.getContainerReference(containerName);
+            container.downloadAttributes();
+
+            String containerETag = container.getProperties() != null ?
+                    Strings.nullToEmpty(container.getProperties().getEtag()) : "";
+
+            BlobIndexCache.IndexWriter indexWriter = blobIndexCache.openWriter(storageAccount.getName(), containerName,
+                    blobDirectory.getPath(), containerETag);
+
+            try {
+                ResultContinuation resultContinuation = null;
+                ResultSegment<ListBlobItem> segment;
+
+                do {
+                    segment = container.listBlobsSegmented(blobDirectory.getPath(), false,
+                            EnumSet.noneOf(BlobListingDetails.class), BLOB_INDEX_SEGMENT_SIZE, resultContinuation,
+                            null, null);
+
+                    for (ListBlobItem item : segment.getResults()) {
+                        BlobItem blobItem = getBlobItem(item, containerName, delimiter);
+
+                        if (blobItem != null) {
+                            indexWriter.write(blobItem);
+                        }
+                    }
+
+                    resultContinuation = segment.getContinuationToken();
+                } while (segment.getHasMoreResults());
+
+                return indexWriter.commit();
+            } finally {
+                indexWriter.close();
+            }
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error refreshing the cached Blob Item list", t);
+        } finally {
+            if (registered) {
+                synchronized (revalidatingIndexes) {
+                    revalidatingIndexes.remove(indexKey);
+                }
+            }
+        }
+    }
+
     @NotNull
     @Override
     public BlobDirectory createBlobDirectory(@NotNull ClientStorageAccount storageAccount,
@@ -334,6 +526,8 @@ public class StorageClientSDKManagerImpl implements StorageClientSDKManager {
             return reloadBlob(blob, containerName, blobFile);
         } catch (Throwable t) {
             throw new AzureCmdException("Error creating the Blob File", t);
+        } finally {
+            invalidateBlobIndex(storageAccount, parentBlobDirectory.getContainerName());
         }
     }
 
@@ -351,6 +545,35 @@ public class StorageClientSDKManagerImpl implements StorageClientSDKManager {
             blob.deleteIfExists();
         } catch (Throwable t) {
             throw new AzureCmdException("Error deleting the Blob File", t);
+        } finally {
+            invalidateBlobIndex(storageAccount, blobFile.getContainerName());
+        }
+    }
+
+    @NotNull
+    @Override
+    public BlobDeleteProgress deleteBlobs(@NotNull ClientStorageAccount storageAccount,
+                                          @NotNull BlobContainer blobContainer,
+                                          @NotNull List<BlobFile> blobFiles,
+                                          @NotNull List<String> prefixes,
+                                          CallableSingleArg<Void, String> processDeleted,
+                                          CallableSingleArg<Void, BlobDeleteProgress> processProgress,
+                                          @NotNull BlobTransferOptions transferOptions)
+            throws AzureCmdException {
+        try {
+            CloudBlobClient client = getCloudBlobClient(storageAccount);
+            CloudBlobContainer container = client.getContainerReference(blobContainer.getName());
+            List<CloudBlob> blobs = new ArrayList<CloudBlob>();
+
+            for (BlobFile blobFile : blobFiles) {
+                blobs.add(getCloudBlob(container, blobFile));
+            }
+
+            return new BlobBulkDeleter(container, transferOptions, processDeleted, processProgress).delete(blobs, prefixes);
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error deleting the Blobs", t);
+        } finally {
+            invalidateBlobIndex(storageAccount, blobContainer.getName());
         }
     }
 
@@ -363,40 +586,267 @@ public class StorageClientSDKManagerImpl implements StorageClientSDKManager {
                                       long maxBlockSize,
                                       long length)
             throws AzureCmdException {
+        uploadBlobFileContent(storageAccount, blobContainer, filePath, content, processBlock, maxBlockSize, length,
+                new BlobTransferOptions());
+    }
+
+    @Override
+    public void uploadBlobFileContent(@NotNull ClientStorageAccount storageAccount,
+                                      @NotNull BlobContainer blobContainer,
+                                      @NotNull String filePath,
+                                      @NotNull InputStream content,
+                                      CallableSingleArg<Void, Long> processBlock,
+                                      long maxBlockSize,
+                                      long length,
+                                      @NotNull BlobTransferOptions transferOptions)
+            throws AzureCmdException {
+        try {
+            CloudBlobClient client = getCloudBlobClient(storageAccount);
+            String containerName = blobContainer.getName();
+
+            CloudBlobContainer container = client.getContainerReference(containerName);
+            CloudBlockBlob blob = container.getBlockBlobReference(filePath);
+
+            ParallelBlockUploader uploader = createBlockUploader(storageAccount, blob, processBlock, transferOptions);
+            uploader.upload(content, maxBlockSize, length);
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error uploading the Blob File content", t);
+        } finally {
+            invalidateBlobIndex(storageAccount, blobContainer.getName());
+        }
+    }
+
+    @Override
+    public void uploadBlobFileContent(@NotNull ClientStorageAccount storageAccount,
+                                      @NotNull BlobContainer blobContainer,
+                                      @NotNull String filePath,
+                                      @NotNull File content,
+                                      CallableSingleArg<Void, Long> processBlock,
+                                      long maxBlockSize,
+                                      @NotNull BlobTransferOptions transferOptions)
+            throws AzureCmdException {
         try {
             CloudBlobClient client = getCloudBlobClient(storageAccount);
             String containerName = blobContainer.getName();
 
             CloudBlobContainer container = client.getContainerReference(containerName);
-            final CloudBlockBlob blob = container.getBlockBlobReference(filePath);
-            long uploadedBytes = 0;
+            CloudBlockBlob blob = container.getBlockBlobReference(filePath);
 
-            ArrayList<BlockEntry> blockEntries = new ArrayList<BlockEntry>();
+            BlobCompressionPolicy compressionPolicy = transferOptions.getCompressionPolicy();
+            String contentType = BlobCompressionPolicy.getContentType(content.getName());
 
-            while (uploadedBytes < length) {
-                String blockId = Base64.encode(UUID.randomUUID().toString().getBytes());
-                BlockEntry entry = new BlockEntry(blockId, BlockSearchMode.UNCOMMITTED);
+            if (compressionPolicy != null && compressionPolicy.shouldCompress(contentType, content.length())) {
+                uploadCompressed(blob, content, contentType, processBlock, transferOptions,
+                        BandwidthManager.getManager().getThrottle(storageAccount.getName()));
+                return;
+            }
 
-                long blockSize = maxBlockSize;
-                if (length - uploadedBytes <= maxBlockSize) {
-                    blockSize = length - uploadedBytes;
-                }
+            ParallelBlockUploader uploader = createBlockUploader(storageAccount, blob, processBlock, transferOptions);
 
-                if (processBlock != null) {
-                    processBlock.call(uploadedBytes);
-                }
+            if (transferOptions.isDeltaUpload()) {
+                // content derived block ids already let an interrupted delta upload pick up where it stopped
+                uploadFile(uploader, content, maxBlockSize);
+                return;
+            }
 
-                entry.setSize(blockSize);
+            BlockUploadJournal journal;
 
-                blockEntries.add(entry);
-                blob.uploadBlock(entry.getId(), content, blockSize);
-                uploadedBytes += blockSize;
+            try {
+                journal = BlockUploadJournal.open(content, containerName, filePath);
+            } catch (IOException e) {
+                // nowhere to keep a journal: upload without resume support
+                uploadFile(uploader, content, maxBlockSize);
+                return;
             }
 
-            blob.commitBlockList(blockEntries);
+            try {
+                journal.retainBlocks(getBlockIds(blob, BlockListingFilter.UNCOMMITTED));
+
+                uploader.setJournal(journal);
+                uploadFile(uploader, content, maxBlockSize);
+
+                journal.delete();
+            } finally {
+                journal.close();
+            }
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error uploading the Blob File content", t);
+        } finally {
+            invalidateBlobIndex(storageAccount, blobContainer.getName());
+        }
+    }
+
+    @Override
+    public void uploadBlobFileContent(@NotNull ClientStorageAccount storageAccount,
+                                      @NotNull BlobContainer blobContainer,
+                                      @NotNull String filePath,
+                                      @NotNull FileChannel content,
+                                      CallableSingleArg<Void, Long> processBlock,
+                                      long maxBlockSize,
+                                      @NotNull BlobTransferOptions transferOptions)
+            throws AzureCmdException {
+        try {
+            CloudBlobClient client = getCloudBlobClient(storageAccount);
+            String containerName = blobContainer.getName();
+
+            CloudBlobContainer container = client.getContainerReference(containerName);
+            CloudBlockBlob blob = container.getBlockBlobReference(filePath);
 
+            ParallelBlockUploader uploader = createBlockUploader(storageAccount, blob, processBlock, transferOptions);
+            uploader.upload(content, maxBlockSize);
         } catch (Throwable t) {
             throw new AzureCmdException("Error uploading the Blob File content", t);
+        } finally {
+            invalidateBlobIndex(storageAccount, blobContainer.getName());
+        }
+    }
+
+    @Override
+    public void uploadBlobDirectoryContent(@NotNull ClientStorageAccount storageAccount,
+                                           @NotNull BlobContainer blobContainer,
+                                           @NotNull String directoryPath,
+                                           @NotNull File content,
+                                           CallableSingleArg<Void, FolderTransferProgress> processProgress,
+                                           @NotNull BlobTransferOptions transferOptions)
+            throws AzureCmdException {
+        try {
+            CloudBlobClient client = getCloudBlobClient(storageAccount);
+            CloudBlobContainer container = client.getContainerReference(blobContainer.getName());
+
+            FolderUploader uploader = new FolderUploader(container, transferOptions, processProgress);
+            uploader.setThrottle(BandwidthManager.getManager().getThrottle(storageAccount.getName()));
+            uploader.upload(content, directoryPath, client.getDirectoryDelimiter());
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error uploading the Blob Directory content", t);
+        } finally {
+            invalidateBlobIndex(storageAccount, blobContainer.getName());
+        }
+    }
+
+    @NotNull
+    @Override
+    public BlobSyncSummary syncBlobDirectory(@NotNull ClientStorageAccount storageAccount,
+                                             @NotNull BlobContainer blobContainer,
+                                             @NotNull String directoryPath,
+                                             @NotNull File localDirectory,
+                                             @NotNull BlobSyncSummary.Mode mode,
+                                             boolean dryRun,
+                                             @Nullable BlobSyncSummary expectedPlan,
+                                             CallableSingleArg<Void, BlobSyncSummary> processProgress,
+                                             @NotNull BlobTransferOptions transferOptions)
+            throws AzureCmdException {
+        try {
+            CloudBlobClient client = getCloudBlobClient(storageAccount);
+            CloudBlobContainer container = client.getContainerReference(blobContainer.getName());
+
+            BlobSyncEngine syncEngine = new BlobSyncEngine(container, localDirectory, directoryPath,
+                    client.getDirectoryDelimiter(), mode, transferOptions, processProgress);
+            syncEngine.setThrottle(BandwidthManager.getManager().getThrottle(storageAccount.getName()));
+
+            return syncEngine.sync(dryRun, expectedPlan);
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error synchronizing the Blob Directory", t);
+        } finally {
+            if (!dryRun) {
+                invalidateBlobIndex(storageAccount, blobContainer.getName());
+            }
+        }
+    }
+
+    @NotNull
+    @Override
+    public BlobCopyProgress copyBlobs(@NotNull ClientStorageAccount sourceAccount,
+                                      @NotNull BlobContainer sourceContainer,
+                                      @NotNull String prefix,
+                                      @NotNull ClientStorageAccount targetAccount,
+                                      @NotNull BlobContainer targetContainer,
+                                      CallableSingleArg<Void, BlobCopyProgress> processProgress,
+                                      @NotNull BlobTransferOptions transferOptions)
+            throws AzureCmdException {
+        try {
+            boolean crossAccount = !sourceAccount.getName().equals(targetAccount.getName());
+
+            if (!crossAccount && sourceContainer.getName().equals(targetContainer.getName())) {
+                throw new IllegalArgumentException("The source and target Blob Containers must be different");
+            }
+
+            CloudBlobContainer source = getCloudBlobClient(sourceAccount).getContainerReference(sourceContainer.getName());
+            CloudBlobContainer target = getCloudBlobClient(targetAccount).getContainerReference(targetContainer.getName());
+
+            BlobCopier copier = new BlobCopier(source, target, crossAccount, BlobCopier.DEFAULT_MAX_PENDING_COPIES,
+                    transferOptions.getRetryCount(), processProgress);
+
+            return copier.copy(prefix);
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error copying the Blobs", t);
+        } finally {
+            invalidateBlobIndex(targetAccount, targetContainer.getName());
+        }
+    }
+
+    @Override
+    public boolean isBlobFileContentUnchanged(@NotNull ClientStorageAccount storageAccount,
+                                              @NotNull String containerName,
+                                              @NotNull String filePath,
+                                              @NotNull File content,
+                                              boolean pageBlob)
+            throws AzureCmdException {
+        try {
+            CloudBlobClient client = getCloudBlobClient(storageAccount);
+            BlobFile cachedBlobFile = blobIndexCache.findBlobFile(storageAccount.getName(), containerName, filePath,
+                    client.getDirectoryDelimiter());
+
+            // a stored hash of encoded content says nothing about the local bytes
+            if (cachedBlobFile == null || cachedBlobFile.getContentMD5Header().isEmpty() ||
+                    !cachedBlobFile.getContentEncoding().isEmpty() ||
+                    cachedBlobFile.getSize() != content.length() ||
+                    BlobType.PAGE_BLOB.toString().equals(cachedBlobFile.getType()) != pageBlob) {
+                return false;
+            }
+
+            if (!BlobTransferHelper.computeContentMD5(content).equals(cachedBlobFile.getContentMD5Header())) {
+                return false;
+            }
+
+            // the listing may be stale, so make sure the hashed version is still the current one
+            CloudBlobContainer container = client.getContainerReference(containerName);
+            CloudBlob blob = pageBlob ? container.getPageBlobReference(filePath) :
+                    container.getBlockBlobReference(filePath);
+
+            return isBlobUnchanged(blob, cachedBlobFile.getETag());
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error comparing the Blob File content", t);
+        }
+    }
+
+    @Override
+    public void uploadPageBlobFileContent(@NotNull ClientStorageAccount storageAccount,
+                                          @NotNull BlobContainer blobContainer,
+                                          @NotNull String filePath,
+                                          @NotNull File content,
+                                          CallableSingleArg<Void, Long> processBlock,
+                                          @NotNull BlobTransferOptions transferOptions)
+            throws AzureCmdException {
+        try {
+            CloudBlobClient client = getCloudBlobClient(storageAccount);
+            String containerName = blobContainer.getName();
+
+            CloudBlobContainer container = client.getContainerReference(containerName);
+            CloudPageBlob blob = container.getPageBlobReference(filePath);
+
+            InputStream inputStream = new BufferedInputStream(new FileInputStream(content));
+
+            try {
+                SparsePageBlobUploader uploader = new SparsePageBlobUploader(blob, transferOptions, processBlock);
+                uploader.setThrottle(BandwidthManager.getManager().getThrottle(storageAccount.getName()));
+                uploader.upload(inputStream, content.length());
+            } finally {
+                inputStream.close();
+            }
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error uploading the Page Blob File content", t);
+        } finally {
+            invalidateBlobIndex(storageAccount, blobContainer.getName());
         }
     }
 
@@ -413,12 +863,198 @@ public class StorageClientSDKManagerImpl implements StorageClientSDKManager {
 
             CloudBlob blob = getCloudBlob(container, blobFile);
 
-            blob.download(content);
+            // the digest is computed inline instead of letting the SDK hash the same bytes again
+            BlobRequestOptions requestOptions = new BlobRequestOptions();
+            requestOptions.setDisableContentMD5Validation(true);
+
+            MessageDigest contentDigest = BlobTransferHelper.createMD5Digest();
+
+            blob.download(BandwidthThrottle.wrap(new DigestOutputStream(content, contentDigest),
+                    BandwidthManager.getManager().getThrottle(storageAccount.getName())), null, requestOptions, null);
+
+            BlobTransferHelper.verifyContentMD5(blob.getProperties().getContentMD5(), contentDigest);
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error downloading the Blob File content", t);
+        }
+    }
+
+    @Override
+    public void downloadBlobFileContent(@NotNull ClientStorageAccount storageAccount,
+                                        @NotNull BlobFile blobFile,
+                                        @NotNull FileChannel content,
+                                        CallableSingleArg<Void, Long> processBlock,
+                                        @NotNull BlobTransferOptions transferOptions)
+            throws AzureCmdException {
+        try {
+            CloudBlobClient client = getCloudBlobClient(storageAccount);
+            String containerName = blobFile.getContainerName();
+
+            CloudBlobContainer container = client.getContainerReference(containerName);
+
+            CloudBlob blob = getCloudBlob(container, blobFile);
+
+            BandwidthThrottle throttle = BandwidthManager.getManager().getThrottle(storageAccount.getName());
+            BlobCompressionPolicy compressionPolicy = transferOptions.getCompressionPolicy();
+
+            if (compressionPolicy != null && compressionPolicy.shouldDecompress(blobFile.getContentEncoding())) {
+                content.truncate(0);
+                downloadDecompressed(blob, blobFile.getETag(), Channels.newOutputStream(content.position(0)),
+                        processBlock, transferOptions, throttle);
+                return;
+            }
+
+            ParallelRangeDownloader downloader = new ParallelRangeDownloader(blob, blobFile.getETag(),
+                    transferOptions, processBlock);
+            downloader.setThrottle(throttle);
+
+            if (blob instanceof CloudPageBlob) {
+                List<ParallelRangeDownloader.Range> ranges = getPageRanges((CloudPageBlob) blob, blobFile.getETag(),
+                        transferOptions.getRangeSize());
+
+                if (content.size() < blobFile.getSize() && blobFile.getSize() > 0) {
+                    content.write(ByteBuffer.wrap(new byte[1]), blobFile.getSize() - 1);
+                }
+
+                downloader.download(content, blobFile.getSize(), ranges);
+            } else {
+                downloader.download(content, blobFile.getSize());
+            }
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error downloading the Blob File content", t);
+        }
+    }
+
+    @Override
+    public void downloadBlobFileContent(@NotNull ClientStorageAccount storageAccount,
+                                        @NotNull BlobFile blobFile,
+                                        @NotNull File content,
+                                        CallableSingleArg<Void, Long> processBlock,
+                                        @NotNull BlobTransferOptions transferOptions)
+            throws AzureCmdException {
+        try {
+            CloudBlobClient client = getCloudBlobClient(storageAccount);
+            String containerName = blobFile.getContainerName();
+
+            CloudBlobContainer container = client.getContainerReference(containerName);
+
+            CloudBlob blob = getCloudBlob(container, blobFile);
+
+            BlobCompressionPolicy compressionPolicy = transferOptions.getCompressionPolicy();
+
+            if (compressionPolicy != null && compressionPolicy.shouldDecompress(blobFile.getContentEncoding())) {
+                OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(content));
+
+                try {
+                    downloadDecompressed(blob, blobFile.getETag(), outputStream, processBlock, transferOptions,
+                            BandwidthManager.getManager().getThrottle(storageAccount.getName()));
+                } finally {
+                    outputStream.close();
+                }
+
+                return;
+            }
+
+            DownloadCheckpoint checkpoint = DownloadCheckpoint.open(content);
+
+            try {
+                boolean restart = !checkpoint.isResumable(transferOptions.getRangeSize()) ||
+                        !isBlobUnchanged(blob, checkpoint.getETag());
+
+                if (restart) {
+                    blob.downloadAttributes();
+
+                    checkpoint.reset(Strings.nullToEmpty(blob.getProperties().getEtag()),
+                            blob.getProperties().getLength(),
+                            transferOptions.getRangeSize());
+                }
+
+                RandomAccessFile randomAccessFile = new RandomAccessFile(content, "rw");
+
+                try {
+                    if (restart) {
+                        // page blob holes are never written, so stale local content must not survive them
+                        randomAccessFile.setLength(0);
+                    }
+
+                    randomAccessFile.setLength(checkpoint.getLength());
+
+                    ParallelRangeDownloader downloader = new ParallelRangeDownloader(blob, checkpoint.getETag(),
+                            transferOptions, processBlock);
+                    downloader.setCheckpoint(checkpoint);
+                    downloader.setThrottle(BandwidthManager.getManager().getThrottle(storageAccount.getName()));
+                    List<ParallelRangeDownloader.Range> ranges = blob instanceof CloudPageBlob ?
+                            getPageRanges((CloudPageBlob) blob, checkpoint.getETag(), checkpoint.getRangeSize()) :
+                            ParallelRangeDownloader.splitRanges(0, checkpoint.getLength(), checkpoint.getRangeSize());
+
+                    downloader.download(randomAccessFile.getChannel(), checkpoint.getLength(),
+                            checkpoint.getMissingRanges(ranges));
+                } finally {
+                    randomAccessFile.close();
+                }
+
+                checkpoint.delete();
+            } finally {
+                checkpoint.close();
+            }
         } catch (Throwable t) {
             throw new AzureCmdException("Error downloading the Blob File content", t);
         }
     }
 
+    @NotNull
+    @Override
+    public byte[] downloadBlobRange(@NotNull ClientStorageAccount storageAccount,
+                                    @NotNull BlobFile blobFile,
+                                    @Nullable String eTag,
+                                    long offset,
+                                    int length)
+            throws AzureCmdException {
+        try {
+            CloudBlobClient client = getCloudBlobClient(storageAccount);
+            CloudBlobContainer container = client.getContainerReference(blobFile.getContainerName());
+            CloudBlob blob = getCloudBlob(container, blobFile);
+
+            AccessCondition accessCondition = Strings.isNullOrEmpty(eTag) ? null :
+                    AccessCondition.generateIfMatchCondition(eTag);
+            byte[] buffer = new byte[length];
+
+            int read = blob.downloadRangeToByteArray(offset, (long) length, buffer, 0, accessCondition, null, null);
+
+            return read == length ? buffer : Arrays.copyOf(buffer, read);
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error downloading the Blob File range", t);
+        }
+    }
+
+    @Nullable
+    @Override
+    public BlobFile refreshBlobFile(@NotNull ClientStorageAccount storageAccount,
+                                   @NotNull BlobFile blobFile)
+            throws AzureCmdException {
+        try {
+            CloudBlobClient client = getCloudBlobClient(storageAccount);
+            CloudBlobContainer container = client.getContainerReference(blobFile.getContainerName());
+            CloudBlob blob = getCloudBlob(container, blobFile);
+
+            AccessCondition accessCondition = Strings.isNullOrEmpty(blobFile.getETag()) ? null :
+                    AccessCondition.generateIfNoneMatchCondition(blobFile.getETag());
+
+            try {
+                blob.downloadAttributes(accessCondition, null, null);
+            } catch (StorageException e) {
+                if (e.getHttpStatusCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    return null;
+                }
+
+                throw e;
+            }
+
+            return updateBlobFile(blob, blobFile.getContainerName(), blobFile);
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error refreshing the Blob File properties", t);
+        }
+    }
+
     @NotNull
     @Override
     public List<Queue> getQueues(@NotNull ClientStorageAccount storageAccount)
@@ -800,6 +1436,11 @@ public class StorageClientSDKManagerImpl implements StorageClientSDKManager {
             throws StorageException, URISyntaxException {
         blob.downloadAttributes();
 
+        return updateBlobFile(blob, containerName, blobFile);
+    }
+
+    @NotNull
+    private static BlobFile updateBlobFile(@NotNull CloudBlob blob, @NotNull String containerName, @NotNull BlobFile blobFile) {
         String uri = blob.getUri() != null ? blob.getUri().toString() : "";
         String path = Strings.nullToEmpty(blob.getName());
         String type = "";
@@ -849,6 +1490,260 @@ public class StorageClientSDKManagerImpl implements StorageClientSDKManager {
         return blobFile;
     }
 
+    @NotNull
+    private static List<ParallelRangeDownloader.Range> getPageRanges(@NotNull CloudPageBlob blob,
+                                                                     @Nullable String eTag,
+                                                                     long rangeSize)
+            throws StorageException {
+        AccessCondition accessCondition = Strings.isNullOrEmpty(eTag) ? null : AccessCondition.generateIfMatchCondition(eTag);
+
+        return ParallelRangeDownloader.splitPageRanges(blob.downloadPageRanges(accessCondition, null, null), rangeSize);
+    }
+
+    @Nullable
+    private static String getPublicReadAccessType(@NotNull CloudBlobClient client, @NotNull BlobContainer blobContainer) {
+        try {
+            CloudBlobContainer container = client.getContainerReference(blobContainer.getName());
+            BlobContainerPermissions blobContainerPermissions = container.downloadPermissions();
+
+            if (blobContainerPermissions != null && blobContainerPermissions.getPublicAccess() != null) {
+                return blobContainerPermissions.getPublicAccess().toString();
+            }
+
+            return "";
+        } catch (Exception e) {
+            // the account key may lack the rights to read the ACL; the container stays listed without it
+            return null;
+        }
+    }
+
+    @NotNull
+    private static ParallelBlockUploader createBlockUploader(@NotNull ClientStorageAccount storageAccount,
+                                                             @NotNull CloudBlockBlob blob,
+                                                             @Nullable CallableSingleArg<Void, Long> processBlock,
+                                                             @NotNull BlobTransferOptions transferOptions)
+            throws StorageException {
+        ParallelBlockUploader uploader = new ParallelBlockUploader(blob, transferOptions, processBlock);
+        uploader.setThrottle(BandwidthManager.getManager().getThrottle(storageAccount.getName()));
+
+        if (transferOptions.isDeltaUpload()) {
+            uploader.setReusableBlockIds(new HashSet<String>(getBlockIds(blob, BlockListingFilter.ALL)));
+        }
+
+        return uploader;
+    }
+
+    private static void uploadFile(@NotNull ParallelBlockUploader uploader, @NotNull File content, long maxBlockSize)
+            throws Exception {
+        FileChannel channel = new RandomAccessFile(content, "r").getChannel();
+
+        try {
+            uploader.upload(channel, maxBlockSize);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static void uploadCompressed(@NotNull CloudBlockBlob blob,
+                                         @NotNull File content,
+                                         @NotNull String contentType,
+                                         @Nullable CallableSingleArg<Void, Long> processBlock,
+                                         @NotNull BlobTransferOptions transferOptions,
+                                         @Nullable BandwidthThrottle throttle)
+            throws Exception {
+        // the compressed length is unknown up front, so blocks are cut by the SDK output stream as gzip fills it
+        blob.getProperties().setContentType(contentType);
+        blob.getProperties().setContentEncoding(BlobCompressionPolicy.GZIP_ENCODING);
+
+        BlobRequestOptions requestOptions = new BlobRequestOptions();
+        requestOptions.setConcurrentRequestCount(transferOptions.getParallelism());
+        requestOptions.setStoreBlobContentMD5(true);
+
+        InputStream inputStream = new FileInputStream(content);
+
+        try {
+            OutputStream outputStream = new GZIPOutputStream(
+                    BandwidthThrottle.wrap(blob.openOutputStream(null, requestOptions, null), throttle),
+                    COMPRESSION_BUFFER_SIZE);
+
+            copy(inputStream, outputStream, processBlock);
+            // closing writes the gzip trailer and commits the block list, so a failed copy leaves
+            // the stream abandoned and its uncommitted blocks are discarded by the service
+            outputStream.close();
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private static void downloadDecompressed(@NotNull CloudBlob blob,
+                                             @Nullable String eTag,
+                                             @NotNull OutputStream content,
+                                             @Nullable CallableSingleArg<Void, Long> processBlock,
+                                             @NotNull BlobTransferOptions transferOptions,
+                                             @Nullable BandwidthThrottle throttle)
+            throws Exception {
+        AccessCondition accessCondition = Strings.isNullOrEmpty(eTag) ? null : AccessCondition.generateIfMatchCondition(eTag);
+        BlobRequestOptions requestOptions = new BlobRequestOptions();
+        requestOptions.setDisableContentMD5Validation(true);
+
+        MessageDigest contentDigest = BlobTransferHelper.createMD5Digest();
+        CountingInputStream rawStream = new CountingInputStream(new DigestInputStream(
+                BandwidthThrottle.wrap(blob.openInputStream(accessCondition, requestOptions, null), throttle),
+                contentDigest));
+
+        try {
+            InputStream inputStream = new GZIPInputStream(rawStream, COMPRESSION_BUFFER_SIZE);
+            byte[] buffer = new byte[COMPRESSION_BUFFER_SIZE];
+            int count;
+
+            while ((count = inputStream.read(buffer)) != -1) {
+                content.write(buffer, 0, count);
+
+                if (processBlock != null) {
+                    // progress is measured against the stored, compressed size of the blob
+                    processBlock.call(rawStream.getCount());
+                }
+            }
+
+            content.flush();
+
+            if (transferOptions.isVerifyContentMD5()) {
+                // the stored hash covers the compressed bytes, so drain any trailing data after the gzip member
+                ByteStreams.copy(rawStream, ByteStreams.nullOutputStream());
+                BlobTransferHelper.verifyContentMD5(blob.getProperties().getContentMD5(), contentDigest);
+            }
+        } finally {
+            rawStream.close();
+        }
+    }
+
+    private static void copy(@NotNull InputStream inputStream,
+                             @NotNull OutputStream outputStream,
+                             @Nullable CallableSingleArg<Void, Long> processBlock)
+            throws Exception {
+        byte[] buffer = new byte[COMPRESSION_BUFFER_SIZE];
+        long total = 0;
+        int count;
+
+        while ((count = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, count);
+            total += count;
+
+            if (processBlock != null) {
+                processBlock.call(total);
+            }
+        }
+    }
+
+    private static boolean isBlobUnchanged(@NotNull CloudBlob blob, @Nullable String eTag)
+            throws StorageException {
+        if (Strings.isNullOrEmpty(eTag)) {
+            return false;
+        }
+
+        try {
+            blob.downloadAttributes(AccessCondition.generateIfMatchCondition(eTag), null, null);
+
+            return true;
+        } catch (StorageException e) {
+            if (e.getHttpStatusCode() == HttpURLConnection.HTTP_PRECON_FAILED) {
+                return false;
+            }
+
+            throw e;
+        }
+    }
+
+    private void invalidateBlobIndex(@NotNull ClientStorageAccount storageAccount, @NotNull String containerName) {
+        blobIndexCache.invalidate(storageAccount.getName(), containerName);
+    }
+
+    @NotNull
+    private static List<String> getBlockIds(@NotNull CloudBlockBlob blob, @NotNull BlockListingFilter filter)
+            throws StorageException {
+        List<String> blockIds = new ArrayList<String>();
+
+        try {
+            for (BlockEntry blockEntry : blob.downloadBlockList(filter, null, null, null)) {
+                blockIds.add(blockEntry.getId());
+            }
+        } catch (StorageException e) {
+            if (e.getHttpStatusCode() != HttpURLConnection.HTTP_NOT_FOUND) {
+                throw e;
+            }
+        }
+
+        return blockIds;
+    }
+
+    @Nullable
+    private static BlobItem getBlobItem(@NotNull ListBlobItem item, @NotNull String containerName,
+                                        @Nullable String delimiter) {
+        String uri = item.getUri() != null ? item.getUri().toString() : "";
+
+        if (item instanceof CloudBlobDirectory) {
+            CloudBlobDirectory subDirectory = (CloudBlobDirectory) item;
+
+            String name = extractBlobItemName(subDirectory.getPrefix(), delimiter);
+            String path = Strings.nullToEmpty(subDirectory.getPrefix());
+
+            return new BlobDirectory(name, uri, containerName, path);
+        } else if (item instanceof CloudBlob) {
+            CloudBlob blob = (CloudBlob) item;
+
+            String name = extractBlobItemName(blob.getName(), delimiter);
+            String path = Strings.nullToEmpty(blob.getName());
+            String type = "";
+            String cacheControlHeader = "";
+            String contentEncoding = "";
+            String contentLanguage = "";
+            String contentType = "";
+            String contentMD5Header = "";
+            String eTag = "";
+            Calendar lastModified = new GregorianCalendar();
+            long size = 0;
+
+            BlobProperties properties = blob.getProperties();
+
+            if (properties != null) {
+                if (properties.getBlobType() != null) {
+                    type = properties.getBlobType().toString();
+                }
+
+                cacheControlHeader = Strings.nullToEmpty(properties.getCacheControl());
+                contentEncoding = Strings.nullToEmpty(properties.getContentEncoding());
+                contentLanguage = Strings.nullToEmpty(properties.getContentLanguage());
+                contentType = Strings.nullToEmpty(properties.getContentType());
+                contentMD5Header = Strings.nullToEmpty(properties.getContentMD5());
+                eTag = Strings.nullToEmpty(properties.getEtag());
+
+                if (properties.getLastModified() != null) {
+                    lastModified.setTime(properties.getLastModified());
+                }
+
+                size = properties.getLength();
+            }
+
+            return new BlobFile(name, uri, containerName, path, type, cacheControlHeader, contentEncoding,
+                    contentLanguage, contentType, contentMD5Header, eTag, lastModified, size);
+        }
+
+        return null;
+    }
+
+    @Nullable
+    private static ResultContinuation getResultContinuation(@Nullable String continuationToken) {
+        if (Strings.isNullOrEmpty(continuationToken)) {
+            return null;
+        }
+
+        ResultContinuation resultContinuation = new ResultContinuation();
+        resultContinuation.setContinuationType(ResultContinuationType.BLOB);
+        resultContinuation.setNextMarker(continuationToken);
+
+        return resultContinuation;
+    }
+
     @NotNull
     private static String extractBlobItemName(@Nullable String path, @Nullable String delimiter) {
         if (path == null) {
@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.model.storage;
+
+import com.microsoft.tooling.msservices.helpers.NotNull;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class BlobContainerStatistics {
+    private static final long[] SIZE_BUCKET_LIMITS = {
+            64L * 1024,
+            1024L * 1024,
+            16L * 1024 * 1024,
+            256L * 1024 * 1024,
+            4L * 1024 * 1024 * 1024
+    };
+
+    private static final String[] SIZE_BUCKET_NAMES = {
+            "Up to 64 KB",
+            "64 KB to 1 MB",
+            "1 MB to 16 MB",
+            "16 MB to 256 MB",
+            "256 MB to 4 GB",
+            "Over 4 GB"
+    };
+
+    private long blobCount;
+    private long totalBytes;
+    private final Map<String, Long> blobCountByType = new LinkedHashMap<String, Long>();
+    private final Map<String, Long> bytesByType = new LinkedHashMap<String, Long>();
+    private final Map<String, Long> blobCountBySize = new LinkedHashMap<String, Long>();
+    private int completedShards;
+    private int totalShards;
+
+    public BlobContainerStatistics() {
+        for (String sizeBucketName : SIZE_BUCKET_NAMES) {
+            blobCountBySize.put(sizeBucketName, 0L);
+        }
+    }
+
+    public synchronized void addBlob(@NotNull String blobType, long size) {
+        blobCount++;
+        totalBytes += size;
+
+        increment(blobCountByType, blobType, 1);
+        increment(bytesByType, blobType, size);
+        increment(blobCountBySize, getSizeBucketName(size), 1);
+    }
+
+    public synchronized void add(@NotNull BlobContainerStatistics statistics) {
+        BlobContainerStatistics other = statistics.copy();
+
+        blobCount += other.blobCount;
+        totalBytes += other.totalBytes;
+
+        for (Map.Entry<String, Long> entry : other.blobCountByType.entrySet()) {
+            increment(blobCountByType, entry.getKey(), entry.getValue());
+        }
+
+        for (Map.Entry<String, Long> entry : other.bytesByType.entrySet()) {
+            increment(bytesByType, entry.getKey(), entry.getValue());
+        }
+
+        for (Map.Entry<String, Long> entry : other.blobCountBySize.entrySet()) {
+            increment(blobCountBySize, entry.getKey(), entry.getValue());
+        }
+    }
+
+    @NotNull
+    public synchronized BlobContainerStatistics copy() {
+        BlobContainerStatistics copy = new BlobContainerStatistics();
+
+        copy.blobCount = blobCount;
+        copy.totalBytes = totalBytes;
+        copy.blobCountByType.putAll(blobCountByType);
+        copy.bytesByType.putAll(bytesByType);
+        copy.blobCountBySize.putAll(blobCountBySize);
+        copy.completedShards = completedShards;
+        copy.totalShards = totalShards;
+
+        return copy;
+    }
+
+    public synchronized long getBlobCount() {
+        return blobCount;
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    @NotNull
+    public synchronized Map<String, Long> getBlobCountByType() {
+        return Collections.unmodifiableMap(new LinkedHashMap<String, Long>(blobCountByType));
+    }
+
+    @NotNull
+    public synchronized Map<String, Long> getBytesByType() {
+        return Collections.unmodifiableMap(new LinkedHashMap<String, Long>(bytesByType));
+    }
+
+    @NotNull
+    public synchronized Map<String, Long> getBlobCountBySize() {
+        return Collections.unmodifiableMap(new LinkedHashMap<String, Long>(blobCountBySize));
+    }
+
+    public synchronized int getCompletedShards() {
+        return completedShards;
+    }
+
+    public synchronized void setCompletedShards(int completedShards) {
+        this.completedShards = completedShards;
+    }
+
+    public synchronized int getTotalShards() {
+        return totalShards;
+    }
+
+    public synchronized void setTotalShards(int totalShards) {
+        this.totalShards = totalShards;
+    }
+
+    public synchronized boolean isComplete() {
+        return totalShards > 0 && completedShards == totalShards;
+    }
+
+    @NotNull
+    private static String getSizeBucketName(long size) {
+        for (int i = 0; i < SIZE_BUCKET_LIMITS.length; i++) {
+            if (size <= SIZE_BUCKET_LIMITS[i]) {
+                return SIZE_BUCKET_NAMES[i];
+            }
+        }
+
+        return SIZE_BUCKET_NAMES[SIZE_BUCKET_NAMES.length - 1];
+    }
+
+    private static void increment(@NotNull Map<String, Long> map, @NotNull String key, long value) {
+        Long current = map.get(key);
+        map.put(key, (current != null ? current : 0L) + value);
+    }
+}
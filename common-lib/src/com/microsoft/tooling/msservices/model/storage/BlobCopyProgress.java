@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.model.storage;
+
+import com.microsoft.tooling.msservices.helpers.NotNull;
+
+public class BlobCopyProgress {
+    private int startedBlobs;
+    private int completedBlobs;
+    private int failedBlobs;
+    private long totalBytes;
+    private long copiedBytes;
+    private boolean listingComplete;
+
+    public synchronized int getStartedBlobs() {
+        return startedBlobs;
+    }
+
+    public synchronized int getCompletedBlobs() {
+        return completedBlobs;
+    }
+
+    public synchronized int getFailedBlobs() {
+        return failedBlobs;
+    }
+
+    public synchronized int getPendingBlobs() {
+        return startedBlobs - completedBlobs - failedBlobs;
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized long getCopiedBytes() {
+        return copiedBytes;
+    }
+
+    public synchronized boolean isListingComplete() {
+        return listingComplete;
+    }
+
+    public synchronized void setListingComplete(boolean listingComplete) {
+        this.listingComplete = listingComplete;
+    }
+
+    public synchronized void addStarted(long size) {
+        startedBlobs++;
+        totalBytes += size;
+    }
+
+    public synchronized void addCopiedBytes(long bytes) {
+        copiedBytes += bytes;
+    }
+
+    public synchronized void completeBlob(boolean failed) {
+        if (failed) {
+            failedBlobs++;
+        } else {
+            completedBlobs++;
+        }
+    }
+
+    @NotNull
+    public synchronized BlobCopyProgress copy() {
+        BlobCopyProgress copy = new BlobCopyProgress();
+        copy.startedBlobs = startedBlobs;
+        copy.completedBlobs = completedBlobs;
+        copy.failedBlobs = failedBlobs;
+        copy.totalBytes = totalBytes;
+        copy.copiedBytes = copiedBytes;
+        copy.listingComplete = listingComplete;
+
+        return copy;
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.model.storage;
+
+import com.microsoft.tooling.msservices.helpers.NotNull;
+
+public class BlobDeleteProgress {
+    private int queuedBlobs;
+    private int deletedBlobs;
+    private int failedBlobs;
+    private boolean listingComplete;
+
+    public synchronized int getQueuedBlobs() {
+        return queuedBlobs;
+    }
+
+    public synchronized int getDeletedBlobs() {
+        return deletedBlobs;
+    }
+
+    public synchronized int getFailedBlobs() {
+        return failedBlobs;
+    }
+
+    public synchronized boolean isListingComplete() {
+        return listingComplete;
+    }
+
+    public synchronized void setListingComplete(boolean listingComplete) {
+        this.listingComplete = listingComplete;
+    }
+
+    public synchronized void addQueued() {
+        queuedBlobs++;
+    }
+
+    public synchronized void completeBlob(boolean failed) {
+        if (failed) {
+            failedBlobs++;
+        } else {
+            deletedBlobs++;
+        }
+    }
+
+    @NotNull
+    public synchronized BlobDeleteProgress copy() {
+        BlobDeleteProgress copy = new BlobDeleteProgress();
+        copy.queuedBlobs = queuedBlobs;
+        copy.deletedBlobs = deletedBlobs;
+        copy.failedBlobs = failedBlobs;
+        copy.listingComplete = listingComplete;
+
+        return copy;
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.model.storage;
+
+import com.microsoft.tooling.msservices.helpers.NotNull;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+public class BlobSyncSummary {
+    public enum Mode {
+        UPLOAD,
+        DOWNLOAD,
+        BIDIRECTIONAL
+    }
+
+    public enum Action {
+        UPLOAD,
+        DOWNLOAD,
+        DELETE_REMOTE,
+        DELETE_LOCAL
+    }
+
+    private final Map<Action, Long> plannedCounts = new EnumMap<Action, Long>(Action.class);
+    private final Map<Action, Long> plannedBytes = new EnumMap<Action, Long>(Action.class);
+    private final Map<Action, Long> completedCounts = new EnumMap<Action, Long>(Action.class);
+    private final Map<Action, Long> completedBytes = new EnumMap<Action, Long>(Action.class);
+    private long unchangedCount;
+    private long failedCount;
+    private boolean planComplete;
+
+    public synchronized void addPlanned(@NotNull Action action, long bytes) {
+        increment(plannedCounts, action, 1);
+        increment(plannedBytes, action, bytes);
+    }
+
+    public synchronized void addCompleted(@NotNull Action action, long bytes) {
+        increment(completedCounts, action, 1);
+        increment(completedBytes, action, bytes);
+    }
+
+    public synchronized void addUnchanged() {
+        unchangedCount++;
+    }
+
+    public synchronized void addFailed() {
+        failedCount++;
+    }
+
+    public synchronized long getPlannedCount(@NotNull Action action) {
+        return get(plannedCounts, action);
+    }
+
+    public synchronized long getPlannedBytes(@NotNull Action action) {
+        return get(plannedBytes, action);
+    }
+
+    public synchronized long getCompletedCount(@NotNull Action action) {
+        return get(completedCounts, action);
+    }
+
+    public synchronized long getCompletedBytes(@NotNull Action action) {
+        return get(completedBytes, action);
+    }
+
+    public synchronized long getPlannedTransferBytes() {
+        return get(plannedBytes, Action.UPLOAD) + get(plannedBytes, Action.DOWNLOAD);
+    }
+
+    public synchronized long getCompletedTransferBytes() {
+        return get(completedBytes, Action.UPLOAD) + get(completedBytes, Action.DOWNLOAD);
+    }
+
+    public synchronized long getUnchangedCount() {
+        return unchangedCount;
+    }
+
+    public synchronized long getFailedCount() {
+        return failedCount;
+    }
+
+    public synchronized boolean isPlanComplete() {
+        return planComplete;
+    }
+
+    public synchronized void setPlanComplete(boolean planComplete) {
+        this.planComplete = planComplete;
+    }
+
+    public boolean hasSamePlan(@NotNull BlobSyncSummary other) {
+        BlobSyncSummary plan = other.copy();
+
+        synchronized (this) {
+            for (Action action : Action.values()) {
+                if (get(plannedCounts, action) != plan.getPlannedCount(action) ||
+                        get(plannedBytes, action) != plan.getPlannedBytes(action)) {
+                    return false;
+                }
+            }
+
+            return unchangedCount == plan.getUnchangedCount();
+        }
+    }
+
+    public synchronized long getPlannedTotalCount() {
+        long count = 0;
+
+        for (Action action : Action.values()) {
+            count += get(plannedCounts, action);
+        }
+
+        return count;
+    }
+
+    public synchronized long getCompletedTotalCount() {
+        long count = 0;
+
+        for (Action action : Action.values()) {
+            count += get(completedCounts, action);
+        }
+
+        return count;
+    }
+
+    @NotNull
+    public synchronized BlobSyncSummary copy() {
+        BlobSyncSummary copy = new BlobSyncSummary();
+        copy.plannedCounts.putAll(plannedCounts);
+        copy.plannedBytes.putAll(plannedBytes);
+        copy.completedCounts.putAll(completedCounts);
+        copy.completedBytes.putAll(completedBytes);
+        copy.unchangedCount = unchangedCount;
+        copy.failedCount = failedCount;
+        copy.planComplete = planComplete;
+
+        return copy;
+    }
+
+    private static long get(@NotNull Map<Action, Long> map, @NotNull Action action) {
+        Long value = map.get(action);
+
+        return value != null ? value : 0;
+    }
+
+    private static void increment(@NotNull Map<Action, Long> map, @NotNull Action action, long value) {
+        map.put(action, get(map, action) + value);
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.model.storage;
+
+import com.microsoft.tooling.msservices.helpers.NotNull;
+import com.microsoft.tooling.msservices.helpers.Nullable;
+
+public class BlobTailUpdate {
+    private final long offset;
+    private final byte[] data;
+    private final long length;
+    private final boolean reset;
+    private final boolean stopped;
+    private final long pollInterval;
+    private final String errorMessage;
+
+    public BlobTailUpdate(long offset,
+                          @NotNull byte[] data,
+                          long length,
+                          boolean reset,
+                          boolean stopped,
+                          long pollInterval,
+                          @Nullable String errorMessage) {
+        this.offset = offset;
+        this.data = data;
+        this.length = length;
+        this.reset = reset;
+        this.stopped = stopped;
+        this.pollInterval = pollInterval;
+        this.errorMessage = errorMessage;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    @NotNull
+    public byte[] getData() {
+        return data;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public boolean isReset() {
+        return reset;
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    public long getPollInterval() {
+        return pollInterval;
+    }
+
+    @Nullable
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+}
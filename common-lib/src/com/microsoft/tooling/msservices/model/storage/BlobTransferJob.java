@@ -0,0 +1,304 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.model.storage;
+
+import com.microsoft.tooling.msservices.helpers.NotNull;
+import com.microsoft.tooling.msservices.helpers.Nullable;
+
+import java.io.File;
+
+public class BlobTransferJob {
+    public enum Direction {
+        UPLOAD,
+        DOWNLOAD,
+        SYNC
+    }
+
+    public enum Priority {
+        HIGH,
+        NORMAL,
+        LOW
+    }
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+
+    private static final long THROUGHPUT_SAMPLE_MILLIS = 1000;
+    private static final double THROUGHPUT_SMOOTHING = 0.3;
+
+    private String id;
+    private Direction direction;
+    private Priority priority;
+    private State state;
+    private long sequence;
+    private ClientStorageAccount storageAccount;
+    private String containerName;
+    private String blobPath;
+    private boolean pageBlob;
+    private boolean deltaUpload;
+    private boolean directory;
+    private boolean unchanged;
+    private BlobFile blobFile;
+    private BlobSyncSummary.Mode syncMode;
+    private BlobSyncSummary syncPlan;
+    private String localPath;
+    private long totalBytes;
+    private long transferredBytes;
+    private int totalFiles;
+    private int completedFiles;
+    private int failedFiles;
+    private String errorMessage;
+
+    private transient double throughput;
+    private transient long sampleTime;
+    private transient long sampleBytes;
+    private transient long blockSize;
+
+    public BlobTransferJob(@NotNull String id,
+                           @NotNull Direction direction,
+                           @NotNull Priority priority,
+                           @NotNull ClientStorageAccount storageAccount,
+                           @NotNull String containerName,
+                           @NotNull String blobPath,
+                           @NotNull File localFile,
+                           long totalBytes) {
+        this.id = id;
+        this.direction = direction;
+        this.priority = priority;
+        this.storageAccount = storageAccount;
+        this.containerName = containerName;
+        this.blobPath = blobPath;
+        this.localPath = localFile.getAbsolutePath();
+        this.totalBytes = totalBytes;
+        this.state = State.QUEUED;
+    }
+
+    @NotNull
+    public String getId() {
+        return id;
+    }
+
+    @NotNull
+    public Direction getDirection() {
+        return direction;
+    }
+
+    @NotNull
+    public synchronized Priority getPriority() {
+        return priority;
+    }
+
+    public synchronized void setPriority(@NotNull Priority priority) {
+        this.priority = priority;
+    }
+
+    @NotNull
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized void setState(@NotNull State state) {
+        this.state = state;
+
+        if (state == State.RUNNING) {
+            throughput = 0;
+            sampleTime = 0;
+            errorMessage = null;
+        }
+    }
+
+    public synchronized boolean isFinished() {
+        return state == State.COMPLETED || state == State.FAILED || state == State.CANCELLED;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    @NotNull
+    public ClientStorageAccount getStorageAccount() {
+        return storageAccount;
+    }
+
+    @NotNull
+    public String getContainerName() {
+        return containerName;
+    }
+
+    @NotNull
+    public String getBlobPath() {
+        return blobPath;
+    }
+
+    public boolean isPageBlob() {
+        return pageBlob;
+    }
+
+    public void setPageBlob(boolean pageBlob) {
+        this.pageBlob = pageBlob;
+    }
+
+    public boolean isDeltaUpload() {
+        return deltaUpload;
+    }
+
+    public void setDeltaUpload(boolean deltaUpload) {
+        this.deltaUpload = deltaUpload;
+    }
+
+    public boolean isDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(boolean directory) {
+        this.directory = directory;
+    }
+
+    public boolean isUnchanged() {
+        return unchanged;
+    }
+
+    public void setUnchanged(boolean unchanged) {
+        this.unchanged = unchanged;
+    }
+
+    @Nullable
+    public BlobFile getBlobFile() {
+        return blobFile;
+    }
+
+    public void setBlobFile(@Nullable BlobFile blobFile) {
+        this.blobFile = blobFile;
+    }
+
+    @Nullable
+    public BlobSyncSummary.Mode getSyncMode() {
+        return syncMode;
+    }
+
+    public void setSyncMode(@Nullable BlobSyncSummary.Mode syncMode) {
+        this.syncMode = syncMode;
+    }
+
+    @Nullable
+    public BlobSyncSummary getSyncPlan() {
+        return syncPlan;
+    }
+
+    public void setSyncPlan(@Nullable BlobSyncSummary syncPlan) {
+        this.syncPlan = syncPlan;
+    }
+
+    @NotNull
+    public File getLocalFile() {
+        return new File(localPath);
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized void setTotalBytes(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+
+    public synchronized long getTransferredBytes() {
+        return transferredBytes;
+    }
+
+    public synchronized void setTransferredBytes(long transferredBytes) {
+        long now = System.currentTimeMillis();
+
+        if (sampleTime == 0) {
+            sampleTime = now;
+            sampleBytes = transferredBytes;
+        } else if (now - sampleTime >= THROUGHPUT_SAMPLE_MILLIS) {
+            double currentThroughput = (transferredBytes - sampleBytes) * 1000.0 / (now - sampleTime);
+
+            throughput = throughput == 0 ? currentThroughput :
+                    throughput + THROUGHPUT_SMOOTHING * (currentThroughput - throughput);
+            sampleTime = now;
+            sampleBytes = transferredBytes;
+        }
+
+        this.transferredBytes = transferredBytes;
+    }
+
+    public synchronized int getTotalFiles() {
+        return totalFiles;
+    }
+
+    public synchronized int getCompletedFiles() {
+        return completedFiles;
+    }
+
+    public synchronized int getFailedFiles() {
+        return failedFiles;
+    }
+
+    public synchronized void setFileCounts(int completedFiles, int totalFiles, int failedFiles) {
+        this.completedFiles = completedFiles;
+        this.totalFiles = totalFiles;
+        this.failedFiles = failedFiles;
+    }
+
+    public synchronized double getThroughput() {
+        return state == State.RUNNING ? throughput : 0;
+    }
+
+    public synchronized long getRemainingSeconds() {
+        double currentThroughput = getThroughput();
+
+        return currentThroughput > 0 ? (long) ((totalBytes - transferredBytes) / currentThroughput) : -1;
+    }
+
+    public synchronized long getBlockSize() {
+        return blockSize;
+    }
+
+    public synchronized void setBlockSize(long blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    @Nullable
+    public synchronized String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public synchronized void setErrorMessage(@Nullable String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    @Override
+    public String toString() {
+        return blobPath;
+    }
+}
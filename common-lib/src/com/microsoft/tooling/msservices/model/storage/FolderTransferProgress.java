@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.model.storage;
+
+import com.microsoft.tooling.msservices.helpers.NotNull;
+
+public class FolderTransferProgress {
+    private int totalFiles;
+    private int completedFiles;
+    private int failedFiles;
+    private long totalBytes;
+    private long transferredBytes;
+
+    public synchronized int getTotalFiles() {
+        return totalFiles;
+    }
+
+    public synchronized int getCompletedFiles() {
+        return completedFiles;
+    }
+
+    public synchronized int getFailedFiles() {
+        return failedFiles;
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized long getTransferredBytes() {
+        return transferredBytes;
+    }
+
+    public synchronized void addFile(long size) {
+        totalFiles++;
+        totalBytes += size;
+    }
+
+    public synchronized void addTransferredBytes(long bytes) {
+        transferredBytes += bytes;
+    }
+
+    public synchronized void completeFile(boolean failed) {
+        if (failed) {
+            failedFiles++;
+        } else {
+            completedFiles++;
+        }
+    }
+
+    public synchronized boolean isComplete() {
+        return completedFiles + failedFiles >= totalFiles;
+    }
+
+    @NotNull
+    public synchronized FolderTransferProgress copy() {
+        FolderTransferProgress copy = new FolderTransferProgress();
+        copy.totalFiles = totalFiles;
+        copy.completedFiles = completedFiles;
+        copy.failedFiles = failedFiles;
+        copy.totalBytes = totalBytes;
+        copy.transferredBytes = transferredBytes;
+
+        return copy;
+    }
+}
@@ -21,6 +21,8 @@
  */
 package com.microsoft.tooling.msservices.serviceexplorer.azure.storage;
 
+import com.microsoft.tooling.msservices.components.DefaultLoader;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
 import com.microsoft.tooling.msservices.helpers.NotNull;
 import com.microsoft.tooling.msservices.helpers.azure.AzureCmdException;
 import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManagerImpl;
@@ -29,7 +31,9 @@ import com.microsoft.tooling.msservices.model.storage.ClientStorageAccount;
 import com.microsoft.tooling.msservices.serviceexplorer.EventHelper.EventStateHandle;
 import com.microsoft.tooling.msservices.serviceexplorer.azure.AzureRefreshableNode;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class BlobModule extends AzureRefreshableNode {
     private static final String BLOBS = "Blobs";
@@ -52,8 +56,43 @@ public class BlobModule extends AzureRefreshableNode {
             return;
         }
 
+        final Map<BlobContainer, ContainerNode> containerNodes = new HashMap<BlobContainer, ContainerNode>();
+
         for (BlobContainer blobContainer : blobContainers) {
-            addChildNode(new ContainerNode(this, storageAccount, blobContainer));
+            ContainerNode containerNode = new ContainerNode(this, storageAccount, blobContainer);
+            containerNodes.put(blobContainer, containerNode);
+
+            addChildNode(containerNode);
+        }
+
+        DefaultLoader.getIdeHelper().executeOnPooledThread(new Runnable() {
+            @Override
+            public void run() {
+                loadPublicAccess(blobContainers, containerNodes);
+            }
+        });
+    }
+
+    private void loadPublicAccess(@NotNull List<BlobContainer> blobContainers,
+                                  @NotNull final Map<BlobContainer, ContainerNode> containerNodes) {
+        try {
+            StorageClientSDKManagerImpl.getManager().loadBlobContainerPublicAccess(storageAccount, blobContainers,
+                    new CallableSingleArg<Void, BlobContainer>() {
+                        @Override
+                        public Void call(final BlobContainer blobContainer) throws Exception {
+                            DefaultLoader.getIdeHelper().invokeLater(new Runnable() {
+                                @Override
+                                public void run() {
+                                    containerNodes.get(blobContainer).updatePublicReadAccessType();
+                                }
+                            });
+
+                            return null;
+                        }
+                    });
+        } catch (AzureCmdException e) {
+            DefaultLoader.getUIHelper().showException("An error occurred while attempting to load the blob container " +
+                    "public access", e, "MS Services - Error Loading Blob Containers", false, true);
         }
     }
 
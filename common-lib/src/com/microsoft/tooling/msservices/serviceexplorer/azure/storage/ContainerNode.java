@@ -98,6 +98,17 @@ public class ContainerNode extends Node {
         loadActions();
     }
 
+    public void updatePublicReadAccessType() {
+        String publicReadAccessType = blobContainer.getPublicReadAccessType();
+
+        if (publicReadAccessType.isEmpty() ||
+                publicReadAccessType.equalsIgnoreCase("OFF")) {
+            setName(blobContainer.getName());
+        } else {
+            setName(String.format("%s (public %s access)", blobContainer.getName(), publicReadAccessType.toLowerCase()));
+        }
+    }
+
     @Override
     protected void onNodeClick(NodeActionEvent e) {
         final Object openedFile = DefaultLoader.getIdeHelper().getOpenedFile(getProject(), storageAccount, blobContainer);
@@ -109,6 +120,14 @@ public class ContainerNode extends Node {
         }
     }
 
+    public ClientStorageAccount getStorageAccount() {
+        return storageAccount;
+    }
+
+    public BlobContainer getBlobContainer() {
+        return blobContainer;
+    }
+
     @Override
     protected Map<String, Class<? extends NodeActionListener>> initActions() {
         return ImmutableMap.of(